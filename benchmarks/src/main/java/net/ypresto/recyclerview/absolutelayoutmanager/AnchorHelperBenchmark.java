@@ -0,0 +1,74 @@
+/*
+ * Copyright (C) 2015 Yuya Tanaka
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ypresto.recyclerview.absolutelayoutmanager;
+
+import android.graphics.Point;
+import android.graphics.Rect;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Anchor item search done on each layout and scroll to keep visible items in place.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AnchorHelperBenchmark {
+    private static final int QUERY_RECT_COUNT = 64;
+
+    @Param({BenchmarkLayoutProviders.GRID, BenchmarkLayoutProviders.INDEXED, BenchmarkLayoutProviders.MASONRY})
+    public String layoutProvider;
+
+    @Param({"10000", "100000"})
+    public int itemCount;
+
+    private AbsoluteLayoutManager.LayoutProvider mLayoutProvider;
+    private Rect[] mQueryRects;
+    private Point[] mScrollOffsets;
+    private int mQueryIndex;
+
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        mLayoutProvider = BenchmarkLayoutProviders.create(layoutProvider);
+        BenchmarkLayoutProviders.prepare(mLayoutProvider, 1080, 1920, itemCount);
+        mQueryRects = BenchmarkLayoutProviders.createQueryRects(mLayoutProvider, 1080, 1920, QUERY_RECT_COUNT);
+        mScrollOffsets = new Point[QUERY_RECT_COUNT];
+        for (int i = 0; i < QUERY_RECT_COUNT; i++) {
+            mScrollOffsets[i] = new Point(mQueryRects[i].left, mQueryRects[i].top);
+        }
+    }
+
+    @Benchmark
+    public AnchorHelper.AnchorInfo calculateAnchorItemInRect() {
+        mQueryIndex = (mQueryIndex + 1) % QUERY_RECT_COUNT;
+        return AnchorHelper.calculateAnchorItemInRect(mLayoutProvider, mScrollOffsets[mQueryIndex], mQueryRects[mQueryIndex]);
+    }
+}
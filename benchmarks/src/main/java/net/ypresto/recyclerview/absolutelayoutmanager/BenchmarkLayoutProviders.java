@@ -0,0 +1,156 @@
+/*
+ * Copyright (C) 2015 Yuya Tanaka
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ypresto.recyclerview.absolutelayoutmanager;
+
+import android.graphics.Rect;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+
+/**
+ * Layout providers with deterministic item sizes, prepared without layout manager.
+ */
+final class BenchmarkLayoutProviders {
+    static final String GRID = "grid";
+    static final String INDEXED = "indexed";
+    static final String MASONRY = "masonry";
+    static final String JUSTIFIED_ROW = "justifiedRow";
+    static final String TABLE = "table";
+    static final String PAGED = "paged";
+
+    private BenchmarkLayoutProviders() {
+        throw new AssertionError();
+    }
+
+    static AbsoluteLayoutManager.LayoutProvider create(String type) {
+        switch (type) {
+            case GRID: {
+                GridLayoutProvider provider = new GridLayoutProvider(4, GridLayoutProvider.VERTICAL);
+                provider.setInterItemSpacing(8);
+                return provider;
+            }
+            case INDEXED:
+                return new IndexedLayoutProvider() {
+                    @Override
+                    protected void getItemRect(int position, Rect outRect) {
+                        int column = position % 3;
+                        int row = position / 3;
+                        int width = getState().getLayoutSpaceWidth() / 3;
+                        outRect.set(column * width, row * 300, (column + 1) * width, row * 300 + itemLength(position, 150, 300));
+                    }
+                };
+            case MASONRY: {
+                MasonryLayoutProvider provider = new MasonryLayoutProvider(3) {
+                    @Override
+                    protected int getItemHeight(int position, int columnWidth) {
+                        return itemLength(position, 150, 600);
+                    }
+                };
+                provider.setInterItemSpacing(8);
+                return provider;
+            }
+            case JUSTIFIED_ROW:
+                return new JustifiedRowLayoutProvider(300, JustifiedRowLayoutProvider.LINE_BREAK_GREEDY) {
+                    @Override
+                    protected void getAspectRatios(int positionStart, int itemCount, float[] outAspectRatios) {
+                        for (int i = 0; i < itemCount; i++) {
+                            outAspectRatios[i] = itemLength(positionStart + i, 50, 200) / 100f;
+                        }
+                    }
+                };
+            case TABLE:
+                return new TableLayoutProvider(8) {
+                    @Override
+                    protected int getRowHeight(int row) {
+                        return itemLength(row, 100, 200);
+                    }
+
+                    @Override
+                    protected int getColumnWidth(int column) {
+                        return itemLength(column, 200, 400);
+                    }
+                };
+            case PAGED:
+                return new PagedLayoutProvider(100, 8) {
+                    @Override
+                    protected int getEstimatedItemHeight() {
+                        return 200;
+                    }
+
+                    @Override
+                    protected int layoutPage(int firstPosition, int itemCount, PackedLayoutAttributes outAttributes) {
+                        int width = getState().getLayoutSpaceWidth();
+                        int top = 0;
+                        for (int i = 0; i < itemCount; i++) {
+                            int height = itemLength(firstPosition + i, 100, 300);
+                            outAttributes.set(i, 0, top, width, top + height);
+                            top += height;
+                        }
+                        return top;
+                    }
+                };
+            default:
+                throw new IllegalArgumentException("Unknown layout provider type: " + type);
+        }
+    }
+
+    /**
+     * Set state as layout manager does, and call {@link AbsoluteLayoutManager.LayoutProvider#prepareLayout()}.
+     * State is private to layout manager, so it is set by reflection.
+     */
+    static void prepare(AbsoluteLayoutManager.LayoutProvider layoutProvider, int layoutSpaceWidth, int layoutSpaceHeight, int itemCount) throws ReflectiveOperationException {
+        Constructor<AbsoluteLayoutManager.LayoutProvider.LayoutManagerState> constructor =
+                AbsoluteLayoutManager.LayoutProvider.LayoutManagerState.class.getDeclaredConstructor(int.class, int.class, int.class);
+        constructor.setAccessible(true);
+        Field field = AbsoluteLayoutManager.LayoutProvider.class.getDeclaredField("mLayoutManagerState");
+        field.setAccessible(true);
+        field.set(layoutProvider, constructor.newInstance(layoutSpaceWidth, layoutSpaceHeight, itemCount));
+        layoutProvider.prepareLayout();
+    }
+
+    /**
+     * Spread query rects of viewport size over the whole content, so that queries do not hit the same cells.
+     */
+    static Rect[] createQueryRects(AbsoluteLayoutManager.LayoutProvider layoutProvider, int width, int height, int count) {
+        int maxLeft = Math.max(0, layoutProvider.getScrollContentWidth() - width);
+        int maxTop = Math.max(0, layoutProvider.getScrollContentHeight() - height);
+        Rect[] rects = new Rect[count];
+        for (int i = 0; i < count; i++) {
+            // Stride by a number coprime to count, to visit content in non-sequential order.
+            int step = (i * 37) % count;
+            int left = (int) ((long) maxLeft * step / (count - 1));
+            int top = (int) ((long) maxTop * step / (count - 1));
+            rects[i] = new Rect(left, top, left + width, top + height);
+        }
+        return rects;
+    }
+
+    /**
+     * @return Length in [min, max), pseudo-randomly chosen by index.
+     */
+    static int itemLength(int index, int min, int max) {
+        int hash = index * 0x9E3779B1;
+        return min + ((hash >>> 8) % (max - min));
+    }
+
+    /**
+     * @param viewportSize Size formatted as {@code <width>x<height>}.
+     */
+    static int[] parseViewportSize(String viewportSize) {
+        String[] parts = viewportSize.split("x");
+        return new int[]{Integer.parseInt(parts[0]), Integer.parseInt(parts[1])};
+    }
+}
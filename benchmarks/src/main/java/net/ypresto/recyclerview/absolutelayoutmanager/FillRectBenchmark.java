@@ -0,0 +1,116 @@
+/*
+ * Copyright (C) 2015 Yuya Tanaka
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ypresto.recyclerview.absolutelayoutmanager;
+
+import android.graphics.Rect;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fill rect math of layout manager on each scroll frame: difference of new and old filled rect,
+ * and rect queries of those strips compared to querying the whole rect.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FillRectBenchmark {
+    private static final int VIEWPORT_WIDTH = 1080;
+    private static final int VIEWPORT_HEIGHT = 1920;
+
+    /**
+     * Scroll delta per frame formatted as {@code <dx>,<dy>}, i.e. vertical fling and diagonal pan.
+     */
+    @Param({"0,64", "24,48"})
+    public String scrollDelta;
+
+    private AbsoluteLayoutManager.LayoutProvider mLayoutProvider;
+    private int mScrollDeltaX;
+    private int mScrollDeltaY;
+    private final Rect mOldRect = new Rect();
+    private final Rect mNewRect = new Rect();
+    private final Rect[] mStrips = {new Rect(), new Rect(), new Rect(), new Rect()};
+    private final CountingVisitor mVisitor = new CountingVisitor();
+
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        String[] parts = scrollDelta.split(",");
+        mScrollDeltaX = Integer.parseInt(parts[0]);
+        mScrollDeltaY = Integer.parseInt(parts[1]);
+        mLayoutProvider = BenchmarkLayoutProviders.create(BenchmarkLayoutProviders.TABLE);
+        BenchmarkLayoutProviders.prepare(mLayoutProvider, VIEWPORT_WIDTH, VIEWPORT_HEIGHT, 100000);
+        mNewRect.set(0, 0, VIEWPORT_WIDTH, VIEWPORT_HEIGHT);
+    }
+
+    @Benchmark
+    public int calculateDifferenceStrips() {
+        scroll();
+        return FillRectHelper.calculateDifferenceStrips(mNewRect, mOldRect, mStrips);
+    }
+
+    @Benchmark
+    public int fillDifferenceStrips() {
+        scroll();
+        int stripCount = FillRectHelper.calculateDifferenceStrips(mNewRect, mOldRect, mStrips);
+        mVisitor.mCount = 0;
+        for (int i = 0; i < stripCount; i++) {
+            mLayoutProvider.forEachLayoutAttributeInRect(mStrips[i], mVisitor);
+        }
+        return mVisitor.mCount;
+    }
+
+    @Benchmark
+    public int fillWholeRect() {
+        scroll();
+        mVisitor.mCount = 0;
+        mLayoutProvider.forEachLayoutAttributeInRect(mNewRect, mVisitor);
+        return mVisitor.mCount;
+    }
+
+    /**
+     * Move viewport by scroll delta, and back to start when it reaches end of content.
+     */
+    private void scroll() {
+        mOldRect.set(mNewRect);
+        mNewRect.offset(mScrollDeltaX, mScrollDeltaY);
+        if (mNewRect.right > mLayoutProvider.getScrollContentWidth() || mNewRect.bottom > mLayoutProvider.getScrollContentHeight()) {
+            mNewRect.offsetTo(0, 0);
+        }
+    }
+
+    private static class CountingVisitor implements AbsoluteLayoutManager.LayoutProvider.LayoutAttributeVisitor {
+        int mCount;
+
+        @Override
+        public void visitLayoutAttribute(int position, int left, int top, int right, int bottom) {
+            mCount++;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (C) 2015 Yuya Tanaka
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ypresto.recyclerview.absolutelayoutmanager;
+
+import android.graphics.Rect;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rect query of each layout provider, at item counts and viewport sizes of small to large lists.
+ * Query rect moves over the whole content on each invocation, like scrolling by a viewport.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LayoutAttributesInRectBenchmark {
+    private static final int QUERY_RECT_COUNT = 64;
+
+    @Param({BenchmarkLayoutProviders.GRID, BenchmarkLayoutProviders.INDEXED, BenchmarkLayoutProviders.MASONRY,
+            BenchmarkLayoutProviders.JUSTIFIED_ROW, BenchmarkLayoutProviders.TABLE, BenchmarkLayoutProviders.PAGED})
+    public String layoutProvider;
+
+    @Param({"1000", "10000", "100000"})
+    public int itemCount;
+
+    @Param({"720x1280", "1440x2560"})
+    public String viewportSize;
+
+    private AbsoluteLayoutManager.LayoutProvider mLayoutProvider;
+    private Rect[] mQueryRects;
+    private int mQueryIndex;
+    private final CountingVisitor mVisitor = new CountingVisitor();
+
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        int[] size = BenchmarkLayoutProviders.parseViewportSize(viewportSize);
+        mLayoutProvider = BenchmarkLayoutProviders.create(layoutProvider);
+        BenchmarkLayoutProviders.prepare(mLayoutProvider, size[0], size[1], itemCount);
+        mQueryRects = BenchmarkLayoutProviders.createQueryRects(mLayoutProvider, size[0], size[1], QUERY_RECT_COUNT);
+    }
+
+    @Benchmark
+    public List<AbsoluteLayoutManager.LayoutProvider.LayoutAttribute> getLayoutAttributesInRect() {
+        return mLayoutProvider.getLayoutAttributesInRect(nextQueryRect());
+    }
+
+    /**
+     * Allocation free query used by layout manager while filling.
+     */
+    @Benchmark
+    public int forEachLayoutAttributeInRect() {
+        mVisitor.mCount = 0;
+        mLayoutProvider.forEachLayoutAttributeInRect(nextQueryRect(), mVisitor);
+        return mVisitor.mCount;
+    }
+
+    private Rect nextQueryRect() {
+        mQueryIndex = (mQueryIndex + 1) % QUERY_RECT_COUNT;
+        return mQueryRects[mQueryIndex];
+    }
+
+    private static class CountingVisitor implements AbsoluteLayoutManager.LayoutProvider.LayoutAttributeVisitor {
+        int mCount;
+
+        @Override
+        public void visitLayoutAttribute(int position, int left, int top, int right, int bottom) {
+            mCount++;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2015 Yuya Tanaka
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ypresto.recyclerview.absolutelayoutmanager;
+
+import android.graphics.Point;
+import android.graphics.Rect;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import static net.ypresto.recyclerview.absolutelayoutmanager.AbsoluteLayoutManager.SCROLL_ALIGNMENT_CENTER;
+import static net.ypresto.recyclerview.absolutelayoutmanager.AbsoluteLayoutManager.SCROLL_ALIGNMENT_NONE;
+import static net.ypresto.recyclerview.absolutelayoutmanager.AbsoluteLayoutManager.SCROLL_ALIGNMENT_TOP;
+
+/**
+ * Scroll offset to show an item, calculated for each scroll to position.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ScrollHelperBenchmark {
+    private static final int ITEM_COUNT = 1000;
+
+    @Param({"none", "top", "center"})
+    public String scrollAlignment;
+
+    private int mScrollAlignment;
+    private AbsoluteLayoutManager.LayoutProvider.LayoutAttribute[] mLayoutAttributes;
+    private Rect[] mLayoutSpaceRects;
+    private int mIndex;
+
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        switch (scrollAlignment) {
+            case "top":
+                mScrollAlignment = SCROLL_ALIGNMENT_TOP;
+                break;
+            case "center":
+                mScrollAlignment = SCROLL_ALIGNMENT_CENTER;
+                break;
+            default:
+                mScrollAlignment = SCROLL_ALIGNMENT_NONE;
+        }
+        AbsoluteLayoutManager.LayoutProvider layoutProvider = BenchmarkLayoutProviders.create(BenchmarkLayoutProviders.TABLE);
+        BenchmarkLayoutProviders.prepare(layoutProvider, 1080, 1920, ITEM_COUNT);
+        mLayoutAttributes = new AbsoluteLayoutManager.LayoutProvider.LayoutAttribute[ITEM_COUNT];
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            mLayoutAttributes[i] = layoutProvider.getLayoutAttributeForItemAtPosition(i);
+        }
+        mLayoutSpaceRects = BenchmarkLayoutProviders.createQueryRects(layoutProvider, 1080, 1920, ITEM_COUNT);
+    }
+
+    @Benchmark
+    public Point calculateScrollOffsetToShowItem() {
+        mIndex = (mIndex + 1) % ITEM_COUNT;
+        // Pair item and viewport of different indices, so that item is usually outside of viewport.
+        return ScrollHelper.calculateScrollOffsetToShowItem(mLayoutAttributes[mIndex], mLayoutSpaceRects[(mIndex * 7) % ITEM_COUNT], mScrollAlignment);
+    }
+}
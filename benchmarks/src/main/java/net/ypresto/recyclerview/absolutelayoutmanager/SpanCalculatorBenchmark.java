@@ -0,0 +1,67 @@
+/*
+ * Copyright (C) 2015 Yuya Tanaka
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ypresto.recyclerview.absolutelayoutmanager;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Start and end offsets of all spans in a row, as calculated for each row of a grid.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SpanCalculatorBenchmark {
+    @Param({"2", "4", "12"})
+    public int spanCount;
+
+    @Param({"0", "16"})
+    public int interItemSpacing;
+
+    private SpanCalculator mSpanCalculator;
+    private int mWholeLength;
+
+    @Setup
+    public void setUp() {
+        mSpanCalculator = new SpanCalculator(interItemSpacing);
+    }
+
+    @Benchmark
+    public int calculateOffsetsForAllSpans() {
+        // Vary length so that rounding is not constant folded.
+        mWholeLength = mWholeLength >= 1440 ? 720 : mWholeLength + 1;
+        int sum = 0;
+        for (int i = 0; i < spanCount; i++) {
+            sum += mSpanCalculator.calculateStartOffsetForSpan(i, spanCount, mWholeLength);
+            sum += mSpanCalculator.calculateEndOffsetForSpan(i, spanCount, mWholeLength);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,10 @@
+package android.content;
+
+/**
+ * Compile-time stub, with constant values of the framework.
+ */
+public interface ComponentCallbacks2 {
+    int TRIM_MEMORY_RUNNING_MODERATE = 5;
+    int TRIM_MEMORY_RUNNING_LOW = 10;
+    int TRIM_MEMORY_RUNNING_CRITICAL = 15;
+}
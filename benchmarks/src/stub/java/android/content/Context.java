@@ -0,0 +1,7 @@
+package android.content;
+
+/**
+ * Compile-time stub.
+ */
+public abstract class Context {
+}
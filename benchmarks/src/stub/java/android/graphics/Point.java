@@ -0,0 +1,32 @@
+package android.graphics;
+
+/**
+ * JVM implementation of the subset of Android Point used by the library.
+ */
+public class Point {
+    public int x;
+    public int y;
+
+    public Point() {
+    }
+
+    public Point(int x, int y) {
+        this.x = x;
+        this.y = y;
+    }
+
+    public void set(int x, int y) {
+        this.x = x;
+        this.y = y;
+    }
+
+    public final void offset(int dx, int dy) {
+        x += dx;
+        y += dy;
+    }
+
+    @Override
+    public String toString() {
+        return "Point(" + x + ", " + y + ")";
+    }
+}
@@ -0,0 +1,17 @@
+package android.graphics;
+
+/**
+ * JVM implementation of the subset of Android PointF used by the library.
+ */
+public class PointF {
+    public float x;
+    public float y;
+
+    public PointF() {
+    }
+
+    public PointF(float x, float y) {
+        this.x = x;
+        this.y = y;
+    }
+}
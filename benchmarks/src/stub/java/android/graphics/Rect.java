@@ -0,0 +1,118 @@
+package android.graphics;
+
+/**
+ * JVM implementation of the subset of Android Rect used by the library.
+ */
+public final class Rect {
+    public int left;
+    public int top;
+    public int right;
+    public int bottom;
+
+    public Rect() {
+    }
+
+    public Rect(int left, int top, int right, int bottom) {
+        this.left = left;
+        this.top = top;
+        this.right = right;
+        this.bottom = bottom;
+    }
+
+    public Rect(Rect r) {
+        if (r != null) {
+            set(r);
+        }
+    }
+
+    public final boolean isEmpty() {
+        return left >= right || top >= bottom;
+    }
+
+    public final int width() {
+        return right - left;
+    }
+
+    public final int height() {
+        return bottom - top;
+    }
+
+    public final float exactCenterX() {
+        return (left + right) * 0.5f;
+    }
+
+    public final float exactCenterY() {
+        return (top + bottom) * 0.5f;
+    }
+
+    public void setEmpty() {
+        left = right = top = bottom = 0;
+    }
+
+    public void set(int left, int top, int right, int bottom) {
+        this.left = left;
+        this.top = top;
+        this.right = right;
+        this.bottom = bottom;
+    }
+
+    public void set(Rect src) {
+        set(src.left, src.top, src.right, src.bottom);
+    }
+
+    public void offset(int dx, int dy) {
+        left += dx;
+        top += dy;
+        right += dx;
+        bottom += dy;
+    }
+
+    public void offsetTo(int newLeft, int newTop) {
+        right += newLeft - left;
+        bottom += newTop - top;
+        left = newLeft;
+        top = newTop;
+    }
+
+    public void inset(int dx, int dy) {
+        left += dx;
+        top += dy;
+        right -= dx;
+        bottom -= dy;
+    }
+
+    public boolean contains(Rect r) {
+        return left < right && top < bottom
+                && left <= r.left && top <= r.top && right >= r.right && bottom >= r.bottom;
+    }
+
+    public boolean intersects(int left, int top, int right, int bottom) {
+        return this.left < right && left < this.right && this.top < bottom && top < this.bottom;
+    }
+
+    public static boolean intersects(Rect a, Rect b) {
+        return a.left < b.right && b.left < a.right && a.top < b.bottom && b.top < a.bottom;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Rect)) return false;
+        Rect r = (Rect) o;
+        return left == r.left && top == r.top && right == r.right && bottom == r.bottom;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = left;
+        result = 31 * result + top;
+        result = 31 * result + right;
+        result = 31 * result + bottom;
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "Rect(" + left + ", " + top + " - " + right + ", " + bottom + ")";
+    }
+}
@@ -0,0 +1,14 @@
+package android.os;
+
+/**
+ * Compile-time stub.
+ */
+public class Handler {
+    public Handler(Looper looper) {
+        throw new RuntimeException("Stub!");
+    }
+
+    public final boolean post(Runnable r) {
+        throw new RuntimeException("Stub!");
+    }
+}
@@ -0,0 +1,13 @@
+package android.os;
+
+/**
+ * Compile-time stub.
+ */
+public final class Looper {
+    private Looper() {
+    }
+
+    public static Looper getMainLooper() {
+        throw new RuntimeException("Stub!");
+    }
+}
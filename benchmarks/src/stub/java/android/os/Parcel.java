@@ -0,0 +1,27 @@
+package android.os;
+
+import java.io.Serializable;
+
+/**
+ * Compile-time stub.
+ */
+public final class Parcel {
+    private Parcel() {
+    }
+
+    public final void writeInt(int val) {
+        throw new RuntimeException("Stub!");
+    }
+
+    public final int readInt() {
+        throw new RuntimeException("Stub!");
+    }
+
+    public final void writeSerializable(Serializable s) {
+        throw new RuntimeException("Stub!");
+    }
+
+    public final Serializable readSerializable() {
+        throw new RuntimeException("Stub!");
+    }
+}
@@ -0,0 +1,16 @@
+package android.os;
+
+/**
+ * Compile-time stub.
+ */
+public interface Parcelable {
+    int describeContents();
+
+    void writeToParcel(Parcel dest, int flags);
+
+    interface Creator<T> {
+        T createFromParcel(Parcel source);
+
+        T[] newArray(int size);
+    }
+}
@@ -0,0 +1,13 @@
+package android.os;
+
+/**
+ * JVM implementation of the subset of Android SystemClock used by the library.
+ */
+public final class SystemClock {
+    private SystemClock() {
+    }
+
+    public static long uptimeMillis() {
+        return System.nanoTime() / 1000000;
+    }
+}
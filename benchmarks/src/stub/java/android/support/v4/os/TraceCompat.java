@@ -0,0 +1,15 @@
+package android.support.v4.os;
+
+/**
+ * JVM implementation of TraceCompat, which does nothing.
+ */
+public final class TraceCompat {
+    private TraceCompat() {
+    }
+
+    public static void beginSection(String sectionName) {
+    }
+
+    public static void endSection() {
+    }
+}
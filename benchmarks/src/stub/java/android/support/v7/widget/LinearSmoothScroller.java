@@ -0,0 +1,29 @@
+package android.support.v7.widget;
+
+import android.content.Context;
+import android.graphics.PointF;
+
+/**
+ * Compile-time stub of the members used by the library.
+ */
+public class LinearSmoothScroller extends RecyclerView.SmoothScroller {
+    public LinearSmoothScroller(Context context) {
+        throw new RuntimeException("Stub!");
+    }
+
+    public PointF computeScrollVectorForPosition(int targetPosition) {
+        throw new RuntimeException("Stub!");
+    }
+
+    public int calculateDtToFit(int viewStart, int viewEnd, int boxStart, int boxEnd, int snapPreference) {
+        throw new RuntimeException("Stub!");
+    }
+
+    protected int getHorizontalSnapPreference() {
+        throw new RuntimeException("Stub!");
+    }
+
+    protected int getVerticalSnapPreference() {
+        throw new RuntimeException("Stub!");
+    }
+}
@@ -0,0 +1,330 @@
+package android.support.v7.widget;
+
+import android.content.Context;
+import android.os.Parcelable;
+import android.util.AttributeSet;
+import android.view.View;
+import android.view.ViewGroup;
+
+/**
+ * Compile-time stub of the members used by the library.
+ */
+public class RecyclerView extends ViewGroup {
+    public static final int NO_POSITION = -1;
+    public static final int SCROLL_STATE_IDLE = 0;
+
+    public Adapter getAdapter() {
+        throw new RuntimeException("Stub!");
+    }
+
+    public abstract static class Adapter<VH extends ViewHolder> {
+        public void registerAdapterDataObserver(AdapterDataObserver observer) {
+            throw new RuntimeException("Stub!");
+        }
+
+        public void unregisterAdapterDataObserver(AdapterDataObserver observer) {
+            throw new RuntimeException("Stub!");
+        }
+    }
+
+    public abstract static class ViewHolder {
+    }
+
+    public void addOnScrollListener(OnScrollListener listener) {
+        throw new RuntimeException("Stub!");
+    }
+
+    public void removeOnScrollListener(OnScrollListener listener) {
+        throw new RuntimeException("Stub!");
+    }
+
+    public abstract static class OnScrollListener {
+        public void onScrolled(RecyclerView recyclerView, int dx, int dy) {
+        }
+    }
+
+    public abstract static class AdapterDataObserver {
+        public void onChanged() {
+        }
+
+        public void onItemRangeChanged(int positionStart, int itemCount) {
+        }
+
+        public void onItemRangeInserted(int positionStart, int itemCount) {
+        }
+
+        public void onItemRangeRemoved(int positionStart, int itemCount) {
+        }
+
+        public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+        }
+    }
+
+    public final class Recycler {
+        public View getViewForPosition(int position) {
+            throw new RuntimeException("Stub!");
+        }
+    }
+
+    public static class State {
+        public boolean isPreLayout() {
+            throw new RuntimeException("Stub!");
+        }
+
+        public boolean willRunPredictiveAnimations() {
+            throw new RuntimeException("Stub!");
+        }
+
+        public int getItemCount() {
+            throw new RuntimeException("Stub!");
+        }
+    }
+
+    public static class LayoutParams extends ViewGroup.MarginLayoutParams {
+        public LayoutParams(Context c, AttributeSet attrs) {
+            super(c, attrs);
+        }
+
+        public LayoutParams(int width, int height) {
+            super(width, height);
+        }
+
+        public LayoutParams(ViewGroup.MarginLayoutParams source) {
+            super(source);
+        }
+
+        public LayoutParams(ViewGroup.LayoutParams source) {
+            super(source);
+        }
+
+        public boolean viewNeedsUpdate() {
+            throw new RuntimeException("Stub!");
+        }
+
+        public boolean isViewInvalid() {
+            throw new RuntimeException("Stub!");
+        }
+
+        public boolean isItemRemoved() {
+            throw new RuntimeException("Stub!");
+        }
+    }
+
+    public abstract static class SmoothScroller {
+        public void setTargetPosition(int targetPosition) {
+            throw new RuntimeException("Stub!");
+        }
+    }
+
+    public abstract static class LayoutManager {
+        public abstract LayoutParams generateDefaultLayoutParams();
+
+        public LayoutParams generateLayoutParams(ViewGroup.LayoutParams lp) {
+            throw new RuntimeException("Stub!");
+        }
+
+        public LayoutParams generateLayoutParams(Context c, AttributeSet attrs) {
+            throw new RuntimeException("Stub!");
+        }
+
+        public boolean checkLayoutParams(LayoutParams lp) {
+            throw new RuntimeException("Stub!");
+        }
+
+        public void onLayoutChildren(Recycler recycler, State state) {
+            throw new RuntimeException("Stub!");
+        }
+
+        public boolean supportsPredictiveItemAnimations() {
+            throw new RuntimeException("Stub!");
+        }
+
+        public int scrollHorizontallyBy(int dx, Recycler recycler, State state) {
+            throw new RuntimeException("Stub!");
+        }
+
+        public int scrollVerticallyBy(int dy, Recycler recycler, State state) {
+            throw new RuntimeException("Stub!");
+        }
+
+        public boolean canScrollHorizontally() {
+            throw new RuntimeException("Stub!");
+        }
+
+        public boolean canScrollVertically() {
+            throw new RuntimeException("Stub!");
+        }
+
+        public void scrollToPosition(int position) {
+            throw new RuntimeException("Stub!");
+        }
+
+        public void smoothScrollToPosition(RecyclerView recyclerView, State state, int position) {
+            throw new RuntimeException("Stub!");
+        }
+
+        public void startSmoothScroll(SmoothScroller smoothScroller) {
+            throw new RuntimeException("Stub!");
+        }
+
+        public void collectAdjacentPrefetchPositions(int dx, int dy, State state, LayoutPrefetchRegistry layoutPrefetchRegistry) {
+            throw new RuntimeException("Stub!");
+        }
+
+        public void collectInitialPrefetchPositions(int adapterItemCount, LayoutPrefetchRegistry layoutPrefetchRegistry) {
+            throw new RuntimeException("Stub!");
+        }
+
+        public void onAttachedToWindow(RecyclerView view) {
+            throw new RuntimeException("Stub!");
+        }
+
+        public void onDetachedFromWindow(RecyclerView view, Recycler recycler) {
+            throw new RuntimeException("Stub!");
+        }
+
+        public void onAdapterChanged(Adapter oldAdapter, Adapter newAdapter) {
+            throw new RuntimeException("Stub!");
+        }
+
+        public boolean isAttachedToWindow() {
+            throw new RuntimeException("Stub!");
+        }
+
+        public Parcelable onSaveInstanceState() {
+            throw new RuntimeException("Stub!");
+        }
+
+        public void onRestoreInstanceState(Parcelable state) {
+            throw new RuntimeException("Stub!");
+        }
+
+        public void onScrollStateChanged(int state) {
+            throw new RuntimeException("Stub!");
+        }
+
+        public int computeHorizontalScrollOffset(State state) {
+            throw new RuntimeException("Stub!");
+        }
+
+        public int computeVerticalScrollOffset(State state) {
+            throw new RuntimeException("Stub!");
+        }
+
+        public int computeHorizontalScrollExtent(State state) {
+            throw new RuntimeException("Stub!");
+        }
+
+        public int computeVerticalScrollExtent(State state) {
+            throw new RuntimeException("Stub!");
+        }
+
+        public int computeHorizontalScrollRange(State state) {
+            throw new RuntimeException("Stub!");
+        }
+
+        public int computeVerticalScrollRange(State state) {
+            throw new RuntimeException("Stub!");
+        }
+
+        public void requestLayout() {
+            throw new RuntimeException("Stub!");
+        }
+
+        public int getChildCount() {
+            throw new RuntimeException("Stub!");
+        }
+
+        public View getChildAt(int index) {
+            throw new RuntimeException("Stub!");
+        }
+
+        public void addView(View child) {
+            throw new RuntimeException("Stub!");
+        }
+
+        public void addView(View child, int index) {
+            throw new RuntimeException("Stub!");
+        }
+
+        public void addDisappearingView(View child, int index) {
+            throw new RuntimeException("Stub!");
+        }
+
+        public void removeAndRecycleView(View child, Recycler recycler) {
+            throw new RuntimeException("Stub!");
+        }
+
+        public void detachAndScrapView(View child, Recycler recycler) {
+            throw new RuntimeException("Stub!");
+        }
+
+        public View findViewByPosition(int position) {
+            throw new RuntimeException("Stub!");
+        }
+
+        public int getPosition(View view) {
+            throw new RuntimeException("Stub!");
+        }
+
+        public int getItemCount() {
+            throw new RuntimeException("Stub!");
+        }
+
+        public void layoutDecorated(View child, int left, int top, int right, int bottom) {
+            throw new RuntimeException("Stub!");
+        }
+
+        public int getDecoratedLeft(View child) {
+            throw new RuntimeException("Stub!");
+        }
+
+        public int getDecoratedTop(View child) {
+            throw new RuntimeException("Stub!");
+        }
+
+        public int getDecoratedRight(View child) {
+            throw new RuntimeException("Stub!");
+        }
+
+        public int getDecoratedBottom(View child) {
+            throw new RuntimeException("Stub!");
+        }
+
+        public void offsetChildrenHorizontal(int dx) {
+            throw new RuntimeException("Stub!");
+        }
+
+        public void offsetChildrenVertical(int dy) {
+            throw new RuntimeException("Stub!");
+        }
+
+        public int getWidth() {
+            throw new RuntimeException("Stub!");
+        }
+
+        public int getHeight() {
+            throw new RuntimeException("Stub!");
+        }
+
+        public int getPaddingLeft() {
+            throw new RuntimeException("Stub!");
+        }
+
+        public int getPaddingTop() {
+            throw new RuntimeException("Stub!");
+        }
+
+        public int getPaddingRight() {
+            throw new RuntimeException("Stub!");
+        }
+
+        public int getPaddingBottom() {
+            throw new RuntimeException("Stub!");
+        }
+
+        public interface LayoutPrefetchRegistry {
+            void addPosition(int layoutPosition, int pixelDistance);
+        }
+    }
+}
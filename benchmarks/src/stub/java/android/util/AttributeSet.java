@@ -0,0 +1,7 @@
+package android.util;
+
+/**
+ * Compile-time stub.
+ */
+public interface AttributeSet {
+}
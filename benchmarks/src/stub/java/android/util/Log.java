@@ -0,0 +1,29 @@
+package android.util;
+
+/**
+ * JVM implementation of the subset of Android Log used by the library, printing to stderr.
+ */
+public final class Log {
+    private Log() {
+    }
+
+    public static int v(String tag, String msg) {
+        return println(tag, msg, null);
+    }
+
+    public static int w(String tag, String msg, Throwable tr) {
+        return println(tag, msg, tr);
+    }
+
+    public static int e(String tag, String msg) {
+        return println(tag, msg, null);
+    }
+
+    private static int println(String tag, String msg, Throwable tr) {
+        System.err.println(tag + ": " + msg);
+        if (tr != null) {
+            tr.printStackTrace();
+        }
+        return 0;
+    }
+}
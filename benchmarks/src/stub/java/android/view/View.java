@@ -0,0 +1,56 @@
+package android.view;
+
+import android.content.Context;
+
+/**
+ * Compile-time stub.
+ */
+public class View {
+    public final Context getContext() {
+        throw new RuntimeException("Stub!");
+    }
+
+    public ViewGroup.LayoutParams getLayoutParams() {
+        throw new RuntimeException("Stub!");
+    }
+
+    public boolean isLayoutRequested() {
+        throw new RuntimeException("Stub!");
+    }
+
+    public final void measure(int widthMeasureSpec, int heightMeasureSpec) {
+        throw new RuntimeException("Stub!");
+    }
+
+    public final int getLeft() {
+        throw new RuntimeException("Stub!");
+    }
+
+    public final int getTop() {
+        throw new RuntimeException("Stub!");
+    }
+
+    public final int getRight() {
+        throw new RuntimeException("Stub!");
+    }
+
+    public final int getBottom() {
+        throw new RuntimeException("Stub!");
+    }
+
+    public void offsetLeftAndRight(int offset) {
+        throw new RuntimeException("Stub!");
+    }
+
+    public void offsetTopAndBottom(int offset) {
+        throw new RuntimeException("Stub!");
+    }
+
+    public static class MeasureSpec {
+        public static final int EXACTLY = 1 << 30;
+
+        public static int makeMeasureSpec(int size, int mode) {
+            throw new RuntimeException("Stub!");
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package android.view;
+
+import android.content.Context;
+import android.util.AttributeSet;
+
+/**
+ * Compile-time stub.
+ */
+public abstract class ViewGroup extends View {
+    public static class LayoutParams {
+        public static final int MATCH_PARENT = -1;
+
+        public LayoutParams(Context c, AttributeSet attrs) {
+            throw new RuntimeException("Stub!");
+        }
+
+        public LayoutParams(int width, int height) {
+            throw new RuntimeException("Stub!");
+        }
+
+        public LayoutParams(LayoutParams source) {
+            throw new RuntimeException("Stub!");
+        }
+    }
+
+    public static class MarginLayoutParams extends LayoutParams {
+        public MarginLayoutParams(Context c, AttributeSet attrs) {
+            super(c, attrs);
+        }
+
+        public MarginLayoutParams(int width, int height) {
+            super(width, height);
+        }
+
+        public MarginLayoutParams(MarginLayoutParams source) {
+            super(source);
+        }
+
+        public MarginLayoutParams(LayoutParams source) {
+            super(source);
+        }
+    }
+}
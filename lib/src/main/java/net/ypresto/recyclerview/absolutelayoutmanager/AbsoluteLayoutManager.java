@@ -19,19 +19,25 @@ import android.content.Context;
 import android.graphics.Point;
 import android.graphics.PointF;
 import android.graphics.Rect;
+import android.os.Handler;
+import android.os.Looper;
 import android.os.Parcel;
 import android.os.Parcelable;
+import android.support.v4.os.TraceCompat;
 import android.support.v7.widget.LinearSmoothScroller;
 import android.support.v7.widget.RecyclerView;
+import android.util.AttributeSet;
 import android.util.Log;
 import android.view.View;
 import android.view.ViewGroup;
 
 import net.ypresto.recyclerview.absolutelayoutmanager.AbsoluteLayoutManager.LayoutProvider.LayoutAttribute;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.Executor;
 
-// TODO: predictive item animations
 public class AbsoluteLayoutManager extends RecyclerView.LayoutManager {
     public static final int SCROLL_ALIGNMENT_NONE = 0;
     public static final int SCROLL_ALIGNMENT_LEFT = 1 << 1;
@@ -43,19 +49,70 @@ public class AbsoluteLayoutManager extends RecyclerView.LayoutManager {
     public static final int SCROLL_ALIGNMENT_CENTER = SCROLL_ALIGNMENT_CENTER_HORIZONTAL | SCROLL_ALIGNMENT_CENTER_VERTICAL;
 
     private static final String TAG = "AbsoluteLayoutManager";
-    private static final float MINIMUM_FILL_SCALE_FACTOR = 0.0f;
-    private static final float MAXIMUM_FILL_SCALE_FACTOR = 0.33f; // MAX_SCROLL_FACTOR of LinearLayoutManager
+    private static final String TRACE_PREPARE_LAYOUT_TAG = "ALM PrepareLayout";
+    private static final String TRACE_FILL_TAG = "ALM Fill";
+    private static final String TRACE_LAYOUT_CHILDREN_TAG = "ALM OnLayoutChildren";
     private static final int NO_POSITION = RecyclerView.NO_POSITION;
+    private static final int DEFAULT_PREFETCH_DEPTH = 8;
+    private static final int DEFAULT_LAYOUT_CACHE_SIZE = 2; // e.g. portrait and landscape
+    // Bounds pre-layout work for moved items, which are looked up one by one.
+    private static final int MAXIMUM_PRE_LAYOUT_MOVED_ITEM_COUNT = 32;
     private static boolean DEBUG = false;
 
     private final RecyclerView.AdapterDataObserver mAdapterObserver = new AdapterObserver();
     private final LayoutProvider mLayoutProvider;
     private boolean mIsLayoutProviderDirty;
+    // Structural changes to be applied incrementally, valid only while layout provider is not dirty.
+    private final List<PendingUpdate> mPendingUpdates = new ArrayList<>();
+    // Changes declared as geometry-stable by layout provider, which only need rebinding views.
+    private boolean mHasPendingContentChanges;
+    // Layout provider has patched its layout by itself, see notifyLayoutChanged().
+    private boolean mIsLayoutProviderPatched;
+    private Executor mPrepareLayoutExecutor;
+    private Handler mMainHandler;
+    private int mAsyncLayoutGeneration;
+    // Previous snapshot of AsyncLayoutProvider is used until new one is ready.
+    private boolean mIsAsyncLayoutPending;
+    private LayoutProvider.LayoutManagerState mAsyncLayoutState;
+    private final LayoutCache mLayoutCache = new LayoutCache(DEFAULT_LAYOUT_CACHE_SIZE);
     private final Point mCurrentScrollOffset = new Point(0, 0);
     // NOTE: Size class is only on API >= 22.
     private int mScrollContentWidth = 0;
     private int mScrollContentHeight = 0;
-    private Rect mFilledRect = new Rect();
+    private final Rect mFilledRect = new Rect();
+    // Scratch objects to keep scroll and fill path allocation-free.
+    private final Rect mVisibleRect = new Rect();
+    private final Rect mMinimumRectToFill = new Rect();
+    private final Rect mMaximumRectToFill = new Rect();
+    private final Rect mRetainChildViewRect = new Rect();
+    private final Rect mChildViewRect = new Rect();
+    private final Point mScrollCompensation = new Point();
+    private final Rect[] mFillStrips = {new Rect(), new Rect(), new Rect(), new Rect()};
+    private final Rect mPreLayoutRect = new Rect();
+    private final Rect mPinnedPaneRect = new Rect();
+    // Index of first pinned child view while filling, updated as views are added or removed instead of rescanning.
+    private int mFirstPinnedChildIndex;
+    // Item count before adapter changes while in pre-layout, otherwise NO_POSITION.
+    private int mPreLayoutItemCount = NO_POSITION;
+    private boolean mIsLayingOutDisappearingViews;
+    // RecyclerView scrolls horizontally then vertically in a frame. Distances of both axes are combined
+    // so that fill extends to leading edges of both axes (and the corner) at once on diagonal scroll.
+    // Frame ends after vertical scroll, on next horizontal scroll, or when RecyclerView dispatches onScrolled().
+    private int mFrameScrollDx;
+    private int mFrameScrollDy;
+    private int mLastFrameScrollDy;
+    private boolean mIsHorizontalScrollInFrame;
+    private final RecyclerView.OnScrollListener mScrollFrameListener = new ScrollFrameListener();
+    private final FillVisitor mFillVisitor = new FillVisitor();
+    private final ReconcileVisitor mReconcileVisitor = new ReconcileVisitor();
+    private final PrefetchCollector mPrefetchCollector = new PrefetchCollector();
+    private final Rect mPrefetchRect = new Rect();
+    private final Rect mHorizontalPrefetchRect = new Rect();
+    private final Rect mVerticalPrefetchRect = new Rect();
+    private int mPrefetchDepth = DEFAULT_PREFETCH_DEPTH;
+    private FillExtentPolicy mFillExtentPolicy = new AdaptiveFillExtentPolicy();
+    private final LayoutCounters mLayoutCounters = new LayoutCounters();
+    private LayoutMetricsListener mLayoutMetricsListener;
     private int mPendingScrollPosition = NO_POSITION;
     private int mPendingScrollAlignment = SCROLL_ALIGNMENT_NONE;
     private SavedState mPendingSavedState;
@@ -74,11 +131,19 @@ public class AbsoluteLayoutManager extends RecyclerView.LayoutManager {
         return rect1.intersects(rect2.left, rect2.top, rect2.right, rect2.bottom);
     }
 
+    private static void setRect(Rect outRect, int x, int y, int width, int height) {
+        outRect.set(x, y, x + width, y + height);
+    }
+
     /**
      * Get visible rect of layout provider coordinate. Returned rect contains padding area.
+     *
+     * @param outRect Rect to write result.
+     * @return Passed outRect.
      */
-    private Rect getVisibleRect() {
-        return createRect(mCurrentScrollOffset.x - getPaddingLeft(), mCurrentScrollOffset.y - getPaddingTop(), getWidth(), getHeight());
+    private Rect getVisibleRect(Rect outRect) {
+        setRect(outRect, mCurrentScrollOffset.x - getPaddingLeft(), mCurrentScrollOffset.y - getPaddingTop(), getWidth(), getHeight());
+        return outRect;
     }
 
     @Override
@@ -92,7 +157,20 @@ public class AbsoluteLayoutManager extends RecyclerView.LayoutManager {
         }
         mCurrentScrollOffset.offset(actualDx, 0);
         offsetChildrenHorizontal(-actualDx);
-        fillRect(getVisibleRect(), dx < 0 ? Direction.LEFT : Direction.RIGHT, recycler);
+        offsetPinnedChildViews(LayoutProvider.PIN_HORIZONTAL, actualDx, 0);
+        if (mIsHorizontalScrollInFrame) {
+            // Previous frame did not scroll vertically.
+            endScrollFrame();
+        }
+        mFrameScrollDx = actualDx;
+        mIsHorizontalScrollInFrame = true;
+        getVisibleRect(mVisibleRect);
+        if (mLastFrameScrollDy != 0 && canScrollVertically() && mFilledRect.contains(mVisibleRect)) {
+            // Vertical scroll likely follows in this frame, so fill both axes at once there.
+            // Otherwise, deferred region is filled by next scroll, as visible rect is already filled.
+            return actualDx;
+        }
+        fillRect(mVisibleRect, mFrameScrollDx, mFrameScrollDy, true, recycler);
         return actualDx;
     }
 
@@ -107,109 +185,274 @@ public class AbsoluteLayoutManager extends RecyclerView.LayoutManager {
         }
         mCurrentScrollOffset.offset(0, actualDy);
         offsetChildrenVertical(-actualDy);
-        fillRect(getVisibleRect(), dy < 0 ? Direction.TOP : Direction.BOTTOM, recycler);
+        offsetPinnedChildViews(LayoutProvider.PIN_VERTICAL, 0, actualDy);
+        mFrameScrollDy = actualDy;
+        fillRect(getVisibleRect(mVisibleRect), mFrameScrollDx, mFrameScrollDy, true, recycler);
+        // Vertical scroll is the last one in a frame.
+        endScrollFrame();
         return actualDy;
     }
 
+    private void endScrollFrame() {
+        mLastFrameScrollDy = mFrameScrollDy;
+        mFrameScrollDx = 0;
+        mFrameScrollDy = 0;
+        mIsHorizontalScrollInFrame = false;
+    }
+
     /**
      * Fills child views around current scroll rect.
      *
-     * @param visibleRect     Current visible rect by {@link #getVisibleRect()}.
-     * @param scrollDirection Fills views by extending current filled rect to specified direction if possible.
-     *                        Fills whole rect if {@code null} is passed or rect could not be extended.
-     * @param recycler        Recycler for creating and recycling views.
+     * @param visibleRect              Current visible rect by {@link #getVisibleRect(Rect)}.
+     * @param dx                       Horizontal scroll distance of this frame, passed to {@link FillExtentPolicy}.
+     * @param dy                       Vertical scroll distance of this frame, passed to {@link FillExtentPolicy}.
+     * @param isIncrementalFillAllowed Fills only region not previously filled if possible, in both axes at once.
+     *                                 Fills whole rect if {@code false} is passed or filled rect is out of range.
+     * @param recycler                 Recycler for creating and recycling views.
      */
-    private void fillRect(Rect visibleRect, Direction scrollDirection, RecyclerView.Recycler recycler) {
-        Rect minimumRectToFill = getExtendedRectWithScaleFactor(visibleRect, MINIMUM_FILL_SCALE_FACTOR);
+    private void fillRect(Rect visibleRect, int dx, int dy, boolean isIncrementalFillAllowed, RecyclerView.Recycler recycler) {
+        Rect minimumRectToFill = mMinimumRectToFill;
+        Rect maximumRectToFill = mMaximumRectToFill;
+        mFillExtentPolicy.calculateFillRects(visibleRect, dx, dy, minimumRectToFill, maximumRectToFill);
         if (mFilledRect.contains(minimumRectToFill)) {
             return;
         }
 
-        Rect maximumRectToFill = getExtendedRectWithScaleFactor(visibleRect, MAXIMUM_FILL_SCALE_FACTOR);
-        Rect rectToFill = maximumRectToFill;
-        Rect newFilledRect = rectToFill;
-        boolean isIncrementalFill = false;
-        if (scrollDirection != null) {
-            // shortcut by extending rect
-            Rect incrementalFillRect = calculateExtendRectToDirection(mFilledRect, maximumRectToFill, scrollDirection);
-            Rect incrementallyFilledRect = new Rect(mFilledRect);
-            incrementallyFilledRect.union(incrementalFillRect);
-            if (incrementallyFilledRect.contains(minimumRectToFill)) {
-                rectToFill = incrementalFillRect;
-                isIncrementalFill = true;
-                // shrink rect to maximum
-                boolean isIntersected = incrementallyFilledRect.intersect(maximumRectToFill);
-                if (!isIntersected) {
-                    throw new IllegalStateException("Unexpected non-intersect rect while calculating filled rect.");
-                }
-                newFilledRect = incrementallyFilledRect;
+        LayoutMetricsListener listener = mLayoutMetricsListener;
+        LayoutCounters counters = mLayoutCounters;
+        long startNanos = listener != null ? System.nanoTime() : 0;
+        int queriedAttributeCount = counters.mQueriedAttributeCount;
+        int addedViewCount = counters.mAddedViewCount;
+        int recycledViewCount = counters.mRecycledViewCount;
+        int measureCount = counters.mMeasureCount;
+        boolean isIncrementalFill;
+        TraceCompat.beginSection(TRACE_FILL_TAG);
+        try {
+            if (prepareLayoutRegion(visibleRect, dx, dy, minimumRectToFill, maximumRectToFill)) {
+                // Placed views are not reusable as lazily calculated layout has been changed.
+                isIncrementalFillAllowed = false;
+            }
+            isIncrementalFill = isIncrementalFillAllowed && Rect.intersects(mFilledRect, maximumRectToFill);
+            if (isIncrementalFill) {
+                // Every item intersecting with filled rect is attached, so only the L-shaped (or framing)
+                // region newly covered by maximum rect needs to be filled, including the corner.
                 if (DEBUG) {
-                    Log.v(TAG, "Incrementally filling rect: " + newFilledRect);
+                    Log.v(TAG, "Incrementally filling rect: " + maximumRectToFill + " from: " + mFilledRect);
                 }
+                counters.mIncrementalFillCount++;
+                mFirstPinnedChildIndex = getFirstPinnedChildIndex();
+                removeChildViewsOutsideOfScrollRect(maximumRectToFill, recycler); // recycle first
+                fillChildViewsInRectDifference(maximumRectToFill, mFilledRect, recycler); // fill views only not previously placed
+            } else {
+                counters.mFullFillCount++;
+                reconcileChildViewsInRect(maximumRectToFill, recycler); // keep still valid views and fill entire rect
+            }
+            if (mLayoutProvider.hasPinnedItems()) {
+                reconcilePinnedChildViews(visibleRect, maximumRectToFill, recycler);
             }
+            mFilledRect.set(maximumRectToFill);
+        } finally {
+            TraceCompat.endSection();
         }
-        if (isIncrementalFill) {
-            removeChildViewsOutsideOfScrollRect(newFilledRect, recycler); // recycle first
-            fillChildViewsInRect(rectToFill, mFilledRect, recycler); // fill views only not previously placed
-        } else {
-            detachAndScrapAttachedViews(recycler); // detach all views and fill entire rect
-            fillChildViewsInRect(rectToFill, null, recycler);
-        }
-        mFilledRect = newFilledRect;
-    }
-
-    private Rect calculateExtendRectToDirection(Rect currentRect, Rect maximumRect, Direction direction) {
-        boolean isIntersected = new Rect().setIntersect(currentRect, maximumRect);
-        if (!isIntersected) return new Rect(0, 0, 0, 0);
-        Rect extendedRect = new Rect(currentRect);
-        switch (direction) {
-            case LEFT:
-                extendedRect.left = maximumRect.left;
-                extendedRect.right = currentRect.left - 1;
-                break;
-            case TOP:
-                extendedRect.top = maximumRect.top;
-                extendedRect.bottom = currentRect.top - 1;
-                break;
-            case RIGHT:
-                extendedRect.right = maximumRect.right;
-                extendedRect.left = currentRect.right + 1;
-                break;
-            case BOTTOM:
-                extendedRect.bottom = maximumRect.bottom;
-                extendedRect.top = currentRect.bottom + 1;
-                break;
-            default:
-                throw new AssertionError();
-        }
-        return extendedRect;
-    }
-
-    private Rect getExtendedRectWithScaleFactor(Rect rect, float scaleFactor) {
-        int deltaWidth = Math.round(rect.width() * scaleFactor);
-        int deltaHeight = Math.round(rect.height() * scaleFactor);
-        int x = (int) Math.round(rect.left - deltaWidth / 2.0);
-        int y = (int) Math.round(rect.top - deltaHeight / 2.0);
-        return createRect(x, y, rect.width() + deltaWidth, rect.height() + deltaHeight);
-    }
-
-    private void fillChildViewsInRect(Rect rectToFill, Rect rectToExclude, RecyclerView.Recycler recycler) {
+        if (listener != null) {
+            listener.onFill(System.nanoTime() - startNanos, isIncrementalFill,
+                    counters.mQueriedAttributeCount - queriedAttributeCount,
+                    counters.mAddedViewCount - addedViewCount,
+                    counters.mRecycledViewCount - recycledViewCount,
+                    counters.mMeasureCount - measureCount);
+        }
+    }
+
+    /**
+     * Lets layout provider calculate layout in the rect lazily, and follows scroll compensation.
+     *
+     * @return {@code true} if layout is changed. visibleRect and rects to fill are updated then.
+     */
+    private boolean prepareLayoutRegion(Rect visibleRect, int dx, int dy, Rect minimumRectToFill, Rect maximumRectToFill) {
+        boolean isChanged = false;
+        // Calculated region may change layout of following region, so repeat until it settles.
+        while (mLayoutProvider.prepareRegion(maximumRectToFill, mScrollCompensation)) {
+            isChanged = true;
+            mScrollContentWidth = mLayoutProvider.getScrollContentWidth();
+            mScrollContentHeight = mLayoutProvider.getScrollContentHeight();
+            mCurrentScrollOffset.offset(mScrollCompensation.x, mScrollCompensation.y);
+            normalizeScrollOffset(mCurrentScrollOffset);
+            getVisibleRect(visibleRect);
+            mFillExtentPolicy.calculateFillRects(visibleRect, dx, dy, minimumRectToFill, maximumRectToFill);
+        }
+        return isChanged;
+    }
+
+    /**
+     * Fill items in newRect but not intersecting with oldRect, by querying up to four strips of the difference.
+     */
+    private void fillChildViewsInRectDifference(Rect newRect, Rect oldRect, RecyclerView.Recycler recycler) {
+        Rect[] strips = mFillStrips;
+        int stripCount = FillRectHelper.calculateDifferenceStrips(newRect, oldRect, strips);
+        if (DEBUG) {
+            Log.v(TAG, "filling " + stripCount + " strips of difference from: " + oldRect);
+        }
+        mFillVisitor.mRectToExclude = oldRect;
+        mFillVisitor.mRecycler = recycler;
+        mFillVisitor.mExcludedStrips = strips;
+        try {
+            for (int i = 0; i < stripCount; i++) {
+                // Items spanning multiple strips are added when the first one is visited.
+                mFillVisitor.mExcludedStripCount = i;
+                mLayoutProvider.forEachLayoutAttributeInRect(strips[i], mFillVisitor);
+            }
+        } finally {
+            mFillVisitor.mRectToExclude = null;
+            mFillVisitor.mRecycler = null;
+            mFillVisitor.mExcludedStrips = null;
+            mFillVisitor.mExcludedStripCount = 0;
+        }
+    }
+
+    /**
+     * Fill rect, reusing attached views which are still valid for their position.
+     * Unchanged views are left as is, moved ones are offset or re-laid out, and the rest are recycled.
+     */
+    private void reconcileChildViewsInRect(Rect rectToFill, RecyclerView.Recycler recycler) {
         if (DEBUG) {
-            Log.v(TAG, "filling for rect: " + rectToFill);
+            Log.v(TAG, "reconciling for rect: " + rectToFill);
+        }
+        // Scrap views not reusable as is first, so that recycler can return them for their new position.
+        for (int i = getChildCount() - 1; i >= 0; i--) {
+            View childView = getChildAt(i);
+            RecyclerView.LayoutParams layoutParams = (RecyclerView.LayoutParams) childView.getLayoutParams();
+            if (layoutParams.isItemRemoved() || layoutParams.isViewInvalid() || layoutParams.viewNeedsUpdate()) {
+                detachAndScrapView(childView, recycler);
+                mLayoutCounters.mScrappedViewCount++;
+            }
+        }
+        mFirstPinnedChildIndex = getFirstPinnedChildIndex();
+        ReconcileVisitor visitor = mReconcileVisitor;
+        visitor.prepare(0, mFirstPinnedChildIndex, recycler);
+        try {
+            mLayoutProvider.forEachLayoutAttributeInRect(rectToFill, visitor);
+            visitor.recycleUnvisitedViews();
+        } finally {
+            visitor.clear();
+        }
+    }
+
+    /**
+     * Fill pinned items in panes fixed to the viewport on their pinned axes, following filled rect on the other axis.
+     * Pinned views are kept as the last children so that they are drawn over scrolling items.
+     */
+    private void reconcilePinnedChildViews(Rect visibleRect, Rect filledRect, RecyclerView.Recycler recycler) {
+        Rect paneRect = mPinnedPaneRect;
+        ReconcileVisitor visitor = mReconcileVisitor;
+        visitor.prepare(mFirstPinnedChildIndex, getChildCount(), recycler);
+        try {
+            // Visible rect at zero scroll offset.
+            int paneLeft = visibleRect.left - mCurrentScrollOffset.x;
+            int paneTop = visibleRect.top - mCurrentScrollOffset.y;
+            int paneRight = paneLeft + visibleRect.width();
+            int paneBottom = paneTop + visibleRect.height();
+            visitor.mPinnedAxes = LayoutProvider.PIN_HORIZONTAL;
+            paneRect.set(paneLeft, filledRect.top, paneRight, filledRect.bottom);
+            mLayoutProvider.forEachLayoutAttributeInRect(paneRect, visitor);
+            visitor.mPinnedAxes = LayoutProvider.PIN_VERTICAL;
+            paneRect.set(filledRect.left, paneTop, filledRect.right, paneBottom);
+            mLayoutProvider.forEachLayoutAttributeInRect(paneRect, visitor);
+            visitor.mPinnedAxes = LayoutProvider.PIN_BOTH;
+            paneRect.set(paneLeft, paneTop, paneRight, paneBottom);
+            mLayoutProvider.forEachLayoutAttributeInRect(paneRect, visitor);
+            visitor.recycleUnvisitedViews();
+        } finally {
+            visitor.clear();
+        }
+    }
+
+    /**
+     * @return Index of first pinned child view, or child count if none. Pinned views are always the last children.
+     * Called once per fill, to initialize {@link #mFirstPinnedChildIndex}.
+     */
+    private int getFirstPinnedChildIndex() {
+        int index = getChildCount();
+        while (index > 0 && getPinnedAxes(getChildAt(index - 1)) != LayoutProvider.PIN_NONE) {
+            index--;
         }
-        List<LayoutAttribute> layoutAttributes = mLayoutProvider.getLayoutAttributesInRect(rectToFill);
-        for (LayoutAttribute layoutAttribute : layoutAttributes) {
-            if (rectToExclude != null && layoutAttribute.isIntersectWithRect(rectToExclude)) {
-                continue;
+        return index;
+    }
+
+    private static int getPinnedAxes(View childView) {
+        return ((LayoutParams) childView.getLayoutParams()).mPinnedAxes;
+    }
+
+    /**
+     * Cancel scroll of views pinned on the axis, after all children are offset.
+     */
+    private void offsetPinnedChildViews(int axis, int dx, int dy) {
+        for (int i = getChildCount() - 1; i >= 0; i--) {
+            View childView = getChildAt(i);
+            int pinnedAxes = getPinnedAxes(childView);
+            if (pinnedAxes == LayoutProvider.PIN_NONE) break;
+            if ((pinnedAxes & axis) == 0) continue;
+            if (dx != 0) {
+                childView.offsetLeftAndRight(dx);
             }
-            View childView = recycler.getViewForPosition(layoutAttribute.mPosition);
+            if (dy != 0) {
+                childView.offsetTopAndBottom(dy);
+            }
+        }
+    }
+
+    /**
+     * @return Horizontal offset to convert layout provider coordinate to child view position.
+     */
+    private int getChildViewOffsetX(int pinnedAxes) {
+        int scrollX = (pinnedAxes & LayoutProvider.PIN_HORIZONTAL) != 0 ? 0 : mCurrentScrollOffset.x;
+        return -scrollX + getPaddingLeft();
+    }
+
+    /**
+     * @return Vertical offset to convert layout provider coordinate to child view position.
+     */
+    private int getChildViewOffsetY(int pinnedAxes) {
+        int scrollY = (pinnedAxes & LayoutProvider.PIN_VERTICAL) != 0 ? 0 : mCurrentScrollOffset.y;
+        return -scrollY + getPaddingTop();
+    }
+
+    private void addChildView(int position, int left, int top, int right, int bottom, RecyclerView.Recycler recycler) {
+        addChildView(position, left, top, right, bottom, LayoutProvider.PIN_NONE, recycler);
+    }
+
+    private void addChildView(int position, int left, int top, int right, int bottom, int pinnedAxes, RecyclerView.Recycler recycler) {
+        View childView = recycler.getViewForPosition(position);
+        if (pinnedAxes == LayoutProvider.PIN_NONE) {
+            addView(childView, mFirstPinnedChildIndex++);
+        } else {
             addView(childView);
-            Rect rect = layoutAttribute.copyRect();
-            offsetLayoutAttributeRectToChildViewRect(rect);
-            // TODO: decoration margins
-            childView.measure(View.MeasureSpec.makeMeasureSpec(rect.width(), View.MeasureSpec.EXACTLY), View.MeasureSpec.makeMeasureSpec(rect.height(), View.MeasureSpec.EXACTLY));
-            layoutDecorated(childView, rect.left, rect.top, rect.right, rect.bottom);
         }
+        ((LayoutParams) childView.getLayoutParams()).mPinnedAxes = pinnedAxes;
+        mLayoutCounters.mAddedViewCount++;
+        int offsetX = getChildViewOffsetX(pinnedAxes);
+        int offsetY = getChildViewOffsetY(pinnedAxes);
+        // TODO: decoration margins
+        measureChildView(childView, right - left, bottom - top);
+        layoutDecorated(childView, left + offsetX, top + offsetY, right + offsetX, bottom + offsetY);
+    }
+
+    /**
+     * Measure child view in exact size, unless it is already measured with same specs and layout is not requested.
+     */
+    private void measureChildView(View childView, int width, int height) {
+        int widthMeasureSpec = View.MeasureSpec.makeMeasureSpec(width, View.MeasureSpec.EXACTLY);
+        int heightMeasureSpec = View.MeasureSpec.makeMeasureSpec(height, View.MeasureSpec.EXACTLY);
+        LayoutParams layoutParams = (LayoutParams) childView.getLayoutParams();
+        if (!childView.isLayoutRequested()
+                && layoutParams.mWidthMeasureSpec == widthMeasureSpec
+                && layoutParams.mHeightMeasureSpec == heightMeasureSpec) {
+            mLayoutCounters.mSkippedMeasureCount++;
+            return;
+        }
+        childView.measure(widthMeasureSpec, heightMeasureSpec);
+        layoutParams.mWidthMeasureSpec = widthMeasureSpec;
+        layoutParams.mHeightMeasureSpec = heightMeasureSpec;
+        mLayoutCounters.mMeasureCount++;
     }
 
     private void updateRectWithView(Rect rect, View view) {
@@ -220,32 +463,64 @@ public class AbsoluteLayoutManager extends RecyclerView.LayoutManager {
     }
 
     private void removeChildViewsOutsideOfScrollRect(Rect scrollRect, RecyclerView.Recycler recycler) {
-        Rect retainChildViewRect = new Rect(scrollRect);
+        Rect retainChildViewRect = mRetainChildViewRect;
+        retainChildViewRect.set(scrollRect);
         offsetLayoutAttributeRectToChildViewRect(retainChildViewRect);
 
-        int childCount = getChildCount();
-        Rect viewRect = new Rect();
+        int childCount = mFirstPinnedChildIndex;
+        Rect viewRect = mChildViewRect;
         int removed = 0;
         for (int i = 0; i < childCount; i++) {
             View childView = getChildAt(i - removed);
             updateRectWithView(viewRect, childView);
             if (!checkIfRectsIntersect(retainChildViewRect, viewRect)) {
                 removeAndRecycleView(childView, recycler);
+                mLayoutCounters.mRecycledViewCount++;
                 removed++;
             }
         }
+        mFirstPinnedChildIndex -= removed;
+    }
+
+    @Override
+    public boolean supportsPredictiveItemAnimations() {
+        return true;
     }
 
     @Override
     public void onLayoutChildren(RecyclerView.Recycler recycler, RecyclerView.State state) {
+        LayoutMetricsListener listener = mLayoutMetricsListener;
+        long startNanos = listener != null ? System.nanoTime() : 0;
+        TraceCompat.beginSection(TRACE_LAYOUT_CHILDREN_TAG);
+        try {
+            layoutChildren(recycler, state);
+        } finally {
+            TraceCompat.endSection();
+        }
+        if (listener != null) {
+            listener.onLayoutChildren(System.nanoTime() - startNanos, state.isPreLayout());
+        }
+    }
+
+    private void layoutChildren(RecyclerView.Recycler recycler, RecyclerView.State state) {
+        if (state.isPreLayout()) {
+            onPreLayoutChildren(recycler, state);
+            return;
+        }
+        boolean hasPendingContentChanges = mHasPendingContentChanges;
+        mHasPendingContentChanges = false;
         prepareLayoutProvider();
-        if (mPendingSavedState != null) {
+        if (hasPendingContentChanges && canKeepCurrentLayout()) {
+            rebindUpdatedChildViews(recycler);
+            return;
+        }
+        if (mPendingSavedState != null && !mIsAsyncLayoutPending) {
             // TODO: Consider deferring restore until getItemCount() > 0.
             restoreFromSavedState(mPendingSavedState);
             mPendingSavedState = null;
         }
 
-        if (mPendingScrollPosition != NO_POSITION) {
+        if (mPendingScrollPosition != NO_POSITION && !mIsAsyncLayoutPending) {
             Point scrollOffset = calculateScrollOffsetToShowPositionIfPossible(mPendingScrollPosition, mPendingScrollAlignment);
             if (scrollOffset != null) {
                 mCurrentScrollOffset.set(scrollOffset.x, scrollOffset.y);
@@ -253,9 +528,147 @@ public class AbsoluteLayoutManager extends RecyclerView.LayoutManager {
             mPendingScrollPosition = NO_POSITION;
         }
         normalizeScrollOffset(mCurrentScrollOffset);
-        detachAndScrapAttachedViews(recycler);
         mFilledRect.setEmpty();
-        fillRect(getVisibleRect(), null, recycler);
+        mIsLayingOutDisappearingViews = state.willRunPredictiveAnimations();
+        try {
+            fillRect(getVisibleRect(mVisibleRect), 0, 0, false, recycler);
+        } finally {
+            mIsLayingOutDisappearingViews = false;
+        }
+    }
+
+    /**
+     * Adds views which may appear by adapter changes, at their place before the changes, so that they are
+     * animated from there. Layout provider is not updated yet, so it still returns layout before the changes.
+     * Only the filled rect extended by size of removed views and moved items are queried, instead of all items.
+     */
+    private void onPreLayoutChildren(RecyclerView.Recycler recycler, RecyclerView.State state) {
+        if (mFilledRect.isEmpty() || mIsAsyncLayoutPending) return;
+        int extraWidth = 0;
+        int extraHeight = 0;
+        for (int i = 0, childCount = getChildCount(); i < childCount; i++) {
+            View childView = getChildAt(i);
+            if (((RecyclerView.LayoutParams) childView.getLayoutParams()).isItemRemoved()) {
+                extraWidth += getDecoratedRight(childView) - getDecoratedLeft(childView);
+                extraHeight += getDecoratedBottom(childView) - getDecoratedTop(childView);
+            }
+        }
+        mPreLayoutItemCount = state.getItemCount();
+        mFirstPinnedChildIndex = getFirstPinnedChildIndex();
+        try {
+            if (extraWidth > 0 || extraHeight > 0) {
+                // Following items fill space of removed ones.
+                Rect preLayoutRect = mPreLayoutRect;
+                preLayoutRect.set(mFilledRect);
+                preLayoutRect.inset(-Math.min(extraWidth, mFilledRect.width()), -Math.min(extraHeight, mFilledRect.height()));
+                fillChildViewsInRectDifference(preLayoutRect, mFilledRect, recycler);
+            }
+            addMovedChildViewsForPreLayout(recycler);
+        } finally {
+            mPreLayoutItemCount = NO_POSITION;
+        }
+    }
+
+    private void addMovedChildViewsForPreLayout(RecyclerView.Recycler recycler) {
+        int remaining = MAXIMUM_PRE_LAYOUT_MOVED_ITEM_COUNT;
+        int itemCount = Math.min(mPreLayoutItemCount, mLayoutProvider.mLayoutManagerState.mItemCount);
+        for (int i = 0, size = mPendingUpdates.size(); i < size; i++) {
+            PendingUpdate update = mPendingUpdates.get(i);
+            if (update.mType != PendingUpdate.MOVE) continue;
+            for (int j = 0; j < update.mItemCount; j++) {
+                if (remaining-- == 0) return;
+                int position = mapPositionBeforeUpdates(update.mPositionStart + j, i);
+                if (position == NO_POSITION || position >= itemCount || findViewByPosition(position) != null) continue;
+                if (mLayoutProvider.getPinnedAxes(position) != LayoutProvider.PIN_NONE) continue;
+                LayoutAttribute layoutAttribute = mLayoutProvider.getLayoutAttributeForItemAtPosition(position);
+                addChildView(position, layoutAttribute.getLeft(), layoutAttribute.getTop(), layoutAttribute.getRight(), layoutAttribute.getBottom(), recycler);
+            }
+        }
+    }
+
+    /**
+     * Map position after first updateCount pending updates back to position before them.
+     *
+     * @return Position before updates, or {@link #NO_POSITION} if item is inserted by them.
+     */
+    private int mapPositionBeforeUpdates(int position, int updateCount) {
+        for (int i = updateCount - 1; i >= 0; i--) {
+            PendingUpdate update = mPendingUpdates.get(i);
+            switch (update.mType) {
+                case PendingUpdate.INSERT:
+                    if (position >= update.mPositionStart + update.mItemCount) {
+                        position -= update.mItemCount;
+                    } else if (position >= update.mPositionStart) {
+                        return NO_POSITION;
+                    }
+                    break;
+                case PendingUpdate.REMOVE:
+                    if (position >= update.mPositionStart) {
+                        position += update.mItemCount;
+                    }
+                    break;
+                case PendingUpdate.MOVE:
+                    // Items moved from mPositionStart to mToPosition, so move them back.
+                    int from = update.mToPosition;
+                    int to = update.mPositionStart;
+                    if (position >= from && position < from + update.mItemCount) {
+                        position = to + (position - from);
+                    } else if (from < to && position >= from + update.mItemCount && position < to + update.mItemCount) {
+                        position -= update.mItemCount;
+                    } else if (from > to && position >= to && position < from) {
+                        position += update.mItemCount;
+                    }
+                    break;
+                case PendingUpdate.CHANGE:
+                    break;
+                default:
+                    throw new AssertionError();
+            }
+        }
+        return position;
+    }
+
+    /**
+     * @return Item count to fill views, which is the one before adapter changes in pre-layout.
+     */
+    private int getItemCountToFill() {
+        return mPreLayoutItemCount != NO_POSITION ? mPreLayoutItemCount : getItemCount();
+    }
+
+    /**
+     * @return {@code true} if layout and scroll offset are not changed since last fill.
+     */
+    private boolean canKeepCurrentLayout() {
+        // Filled rect is invalidated whenever layout provider updates layout.
+        return !mFilledRect.isEmpty()
+                && mPendingSavedState == null
+                && mPendingScrollPosition == NO_POSITION;
+    }
+
+    /**
+     * Replace only views whose content is changed, keeping their bounds and other views as is.
+     */
+    private void rebindUpdatedChildViews(RecyclerView.Recycler recycler) {
+        int childCount = getChildCount();
+        for (int i = 0; i < childCount; i++) {
+            View childView = getChildAt(i);
+            RecyclerView.LayoutParams layoutParams = (RecyclerView.LayoutParams) childView.getLayoutParams();
+            if (!layoutParams.viewNeedsUpdate()) continue;
+            int position = getPosition(childView);
+            int left = getDecoratedLeft(childView);
+            int top = getDecoratedTop(childView);
+            int right = getDecoratedRight(childView);
+            int bottom = getDecoratedBottom(childView);
+            int pinnedAxes = getPinnedAxes(childView);
+            detachAndScrapView(childView, recycler);
+            View newChildView = recycler.getViewForPosition(position);
+            addView(newChildView, i);
+            ((LayoutParams) newChildView.getLayoutParams()).mPinnedAxes = pinnedAxes;
+            mLayoutCounters.mScrappedViewCount++;
+            mLayoutCounters.mAddedViewCount++;
+            measureChildView(newChildView, right - left, bottom - top);
+            layoutDecorated(newChildView, left, top, right, bottom);
+        }
     }
 
     /**
@@ -286,7 +699,7 @@ public class AbsoluteLayoutManager extends RecyclerView.LayoutManager {
     }
 
     private Point calculateScrollOffsetToShowPositionIfPossible(int position, int scrollAlignment) {
-        if (position >= getItemCount()) return null;
+        if (position >= getItemCount() || position >= mLayoutProvider.mLayoutManagerState.mItemCount) return null;
         LayoutAttribute layoutAttribute = mLayoutProvider.getLayoutAttributeForItemAtPosition(position);
         Rect layoutSpaceRect = createRect(mCurrentScrollOffset.x, mCurrentScrollOffset.y, getLayoutSpaceWidth(), getLayoutSpaceHeight());
         return ScrollHelper.calculateScrollOffsetToShowItem(layoutAttribute, layoutSpaceRect, scrollAlignment);
@@ -304,23 +717,95 @@ public class AbsoluteLayoutManager extends RecyclerView.LayoutManager {
         return mLayoutProvider;
     }
 
+    /**
+     * Run {@link LayoutProvider#prepareLayout()} of {@link AsyncLayoutProvider} on the executor.
+     * Previous layout is shown until new one is ready, then scroll offset is adjusted to keep
+     * the item near top-left of viewport at same place.
+     * Has no effect on other layout providers.
+     *
+     * @param executor Executor to create layout snapshot on, or {@code null} to prepare synchronously.
+     */
+    public void setPrepareLayoutExecutor(Executor executor) {
+        mPrepareLayoutExecutor = executor;
+    }
+
     /**
      * Explicitly requests to call {@link LayoutProvider#prepareLayout()} on next layout cycle.
-     * Note that any changes to adapter implicitly requests {@code prepareLayout()} call.
+     * Layouts cached for other layout space sizes are discarded.
+     * Note that any changes to adapter implicitly requests {@code prepareLayout()} call,
+     * unless layout provider handles them incrementally (e.g. {@link LayoutProvider#onItemsInserted(int, int)}).
      */
     public void invalidateLayout() {
+        mLayoutCache.clear();
         mIsLayoutProviderDirty = true;
         requestLayout();
     }
 
+    /**
+     * Requests to lay out views again without {@link LayoutProvider#prepareLayout()}, after layout
+     * provider has updated its layout by itself (e.g. {@link TableLayoutProvider#setRowHeight(int, int)}).
+     * Layouts cached for other layout space sizes are discarded.
+     */
+    public void notifyLayoutChanged() {
+        mLayoutCache.clear();
+        mIsLayoutProviderPatched = true;
+        requestLayout();
+    }
+
+    /**
+     * Set number of layouts to keep for other layout space sizes, e.g. to restore instantly when
+     * rotated back. Only layout providers implementing {@link LayoutProvider.CacheableLayout} are cached.
+     *
+     * @param layoutCacheSize Number of layouts to keep, or 0 to disable. Defaults to 2.
+     */
+    public void setLayoutCacheSize(int layoutCacheSize) {
+        mLayoutCache.setMaximumSize(layoutCacheSize);
+    }
+
+    public int getLayoutCacheSize() {
+        return mLayoutCache.getMaximumSize();
+    }
+
+    /**
+     * Cached layouts are no longer valid if layout provider does not tell which data they are for.
+     */
+    private void invalidateLayoutCacheForDataChange() {
+        if (mLayoutProvider.getDataVersion() == LayoutProvider.NO_DATA_VERSION) {
+            mLayoutCache.clear();
+        }
+    }
+
+    private void saveLayoutToCache(LayoutProvider.LayoutManagerState state) {
+        if (mLayoutCache.getMaximumSize() == 0 || !(mLayoutProvider instanceof LayoutProvider.CacheableLayout)) return;
+        mLayoutCache.put(state, mLayoutProvider.getDataVersion(), ((LayoutProvider.CacheableLayout) mLayoutProvider).saveLayout());
+    }
+
     private void prepareLayoutProvider() {
-        if (mLayoutProvider.mLayoutManagerState.mLayoutSpaceWidth != getLayoutSpaceWidth()
-                || mLayoutProvider.mLayoutManagerState.mLayoutSpaceHeight != getLayoutSpaceHeight()) {
+        LayoutProvider.LayoutManagerState preparedState = mIsAsyncLayoutPending ? mAsyncLayoutState : mLayoutProvider.mLayoutManagerState;
+        if (preparedState.mLayoutSpaceWidth != getLayoutSpaceWidth()
+                || preparedState.mLayoutSpaceHeight != getLayoutSpaceHeight()) {
             mIsLayoutProviderDirty = true;
         }
 
+        if (!mIsLayoutProviderDirty && mIsLayoutProviderPatched) {
+            mFilledRect.setEmpty(); // invalidate cache
+            mScrollContentWidth = mLayoutProvider.getScrollContentWidth();
+            mScrollContentHeight = mLayoutProvider.getScrollContentHeight();
+        }
+        mIsLayoutProviderPatched = false;
+
+        if (!mIsLayoutProviderDirty && !mPendingUpdates.isEmpty()) {
+            if (applyPendingUpdates()) {
+                mFilledRect.setEmpty(); // invalidate cache
+                mScrollContentWidth = mLayoutProvider.getScrollContentWidth();
+                mScrollContentHeight = mLayoutProvider.getScrollContentHeight();
+            } else {
+                mIsLayoutProviderDirty = true;
+            }
+        }
+
         if (!mIsLayoutProviderDirty) {
-            if (mLayoutProvider.mLayoutManagerState.mItemCount != getItemCount()) {
+            if (!mIsAsyncLayoutPending && mLayoutProvider.mLayoutManagerState.mItemCount != getItemCount()) {
                 throw new IllegalStateException(
                         "The item count of the adapter has been changed but hosting RecyclerView "
                                 + "did not receive notification. Please ensure to call "
@@ -330,15 +815,175 @@ public class AbsoluteLayoutManager extends RecyclerView.LayoutManager {
             }
             return;
         }
-        mFilledRect = new Rect(); // invalidate cache
-        mLayoutProvider.mLayoutManagerState = new LayoutProvider.LayoutManagerState(
+        mPendingUpdates.clear();
+        LayoutProvider.LayoutManagerState state = new LayoutProvider.LayoutManagerState(
                 getLayoutSpaceWidth(),
                 getLayoutSpaceHeight(),
                 getItemCount());
-        mLayoutProvider.prepareLayout();
+        Object cachedLayout = mLayoutCache.get(state, mLayoutProvider.getDataVersion());
+        if (cachedLayout != null) {
+            if (DEBUG) {
+                Log.v(TAG, "Restoring cached layout for: " + state);
+            }
+            mIsAsyncLayoutPending = false;
+            mAsyncLayoutGeneration++; // discard in-flight snapshot
+            mFilledRect.setEmpty(); // invalidate cache
+            mLayoutProvider.mLayoutManagerState = state;
+            // Only layouts of CacheableLayout are put to cache.
+            ((LayoutProvider.CacheableLayout) mLayoutProvider).restoreLayout(cachedLayout);
+            mScrollContentWidth = mLayoutProvider.getScrollContentWidth();
+            mScrollContentHeight = mLayoutProvider.getScrollContentHeight();
+            mIsLayoutProviderDirty = false;
+            return;
+        }
+        if (mPrepareLayoutExecutor != null && mLayoutProvider instanceof AsyncLayoutProvider) {
+            requestAsyncLayout((AsyncLayoutProvider) mLayoutProvider, state);
+            mIsLayoutProviderDirty = false;
+            return;
+        }
+        mIsAsyncLayoutPending = false;
+        mAsyncLayoutGeneration++; // discard in-flight snapshot
+        mFilledRect.setEmpty(); // invalidate cache
+        mLayoutProvider.mLayoutManagerState = state;
+        LayoutMetricsListener listener = mLayoutMetricsListener;
+        long startNanos = listener != null ? System.nanoTime() : 0;
+        TraceCompat.beginSection(TRACE_PREPARE_LAYOUT_TAG);
+        try {
+            mLayoutProvider.prepareLayout();
+        } finally {
+            TraceCompat.endSection();
+        }
+        if (listener != null) {
+            listener.onPrepareLayout(System.nanoTime() - startNanos, false, state.mItemCount);
+        }
+        mLayoutCounters.mPrepareLayoutCount++;
         mScrollContentWidth = mLayoutProvider.getScrollContentWidth();
         mScrollContentHeight = mLayoutProvider.getScrollContentHeight();
         mIsLayoutProviderDirty = false;
+        saveLayoutToCache(state);
+    }
+
+    private void requestAsyncLayout(final AsyncLayoutProvider layoutProvider, final LayoutProvider.LayoutManagerState state) {
+        if (mMainHandler == null) {
+            mMainHandler = new Handler(Looper.getMainLooper());
+        }
+        final int generation = ++mAsyncLayoutGeneration;
+        mIsAsyncLayoutPending = true;
+        mAsyncLayoutState = state;
+        mPrepareLayoutExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                final AsyncLayoutProvider.LayoutSnapshot snapshot;
+                final long startNanos = System.nanoTime();
+                TraceCompat.beginSection(TRACE_PREPARE_LAYOUT_TAG);
+                try {
+                    snapshot = layoutProvider.createLayoutSnapshot(state);
+                } catch (final RuntimeException e) {
+                    // Rethrow on main thread so that it is not swallowed by executor.
+                    mMainHandler.post(new Runnable() {
+                        @Override
+                        public void run() {
+                            throw e;
+                        }
+                    });
+                    return;
+                } finally {
+                    TraceCompat.endSection();
+                }
+                final long durationNanos = System.nanoTime() - startNanos;
+                mMainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        swapLayoutSnapshot(generation, layoutProvider, state, snapshot, durationNanos);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Replace current snapshot with new one, keeping the item nearest to scroll offset at same place.
+     */
+    private void swapLayoutSnapshot(int generation, AsyncLayoutProvider layoutProvider, LayoutProvider.LayoutManagerState state, AsyncLayoutProvider.LayoutSnapshot snapshot, long durationNanos) {
+        if (generation != mAsyncLayoutGeneration || layoutProvider != mLayoutProvider) return;
+        if (mLayoutMetricsListener != null) {
+            mLayoutMetricsListener.onPrepareLayout(durationNanos, true, state.mItemCount);
+        }
+        mIsAsyncLayoutPending = false;
+        mAsyncLayoutState = null;
+
+        AnchorHelper.AnchorInfo anchor = null;
+        if (layoutProvider.getSnapshot().getItemCount() > 0) {
+            anchor = AnchorHelper.calculateAnchorItemInRect(layoutProvider, mCurrentScrollOffset, getVisibleRect(new Rect()));
+        }
+        layoutProvider.setSnapshot(snapshot);
+        mLayoutProvider.mLayoutManagerState = state;
+        mLayoutCounters.mPrepareLayoutCount++;
+        saveLayoutToCache(state);
+        mScrollContentWidth = layoutProvider.getScrollContentWidth();
+        mScrollContentHeight = layoutProvider.getScrollContentHeight();
+        mFilledRect.setEmpty();
+
+        // NOTE: Positions are not mapped through adapter changes made while calculating.
+        if (anchor != null && anchor.mLayoutAttribute.getPosition() < snapshot.getItemCount()) {
+            Point oldPoint = anchor.getPoint();
+            LayoutAttribute layoutAttribute = layoutProvider.getLayoutAttributeForItemAtPosition(anchor.mLayoutAttribute.getPosition());
+            Point newPoint = anchor.mCorner.getPointForRect(layoutAttribute.mRect);
+            mCurrentScrollOffset.offset(newPoint.x - oldPoint.x, newPoint.y - oldPoint.y);
+        }
+        if (DEBUG) {
+            Log.v(TAG, "Swapped layout snapshot, item count: " + snapshot.getItemCount());
+        }
+        requestLayout();
+    }
+
+    /**
+     * Lets layout provider patch its layout for each pending structural change.
+     *
+     * @return {@code false} if layout provider did not handle some change and needs {@link LayoutProvider#prepareLayout()}.
+     */
+    private boolean applyPendingUpdates() {
+        LayoutProvider.LayoutManagerState state = mLayoutProvider.mLayoutManagerState;
+        int itemCount = state.mItemCount;
+        try {
+            for (PendingUpdate update : mPendingUpdates) {
+                boolean handled;
+                switch (update.mType) {
+                    case PendingUpdate.INSERT:
+                        itemCount += update.mItemCount;
+                        setLayoutManagerStateItemCount(itemCount);
+                        handled = mLayoutProvider.onItemsInserted(update.mPositionStart, update.mItemCount);
+                        break;
+                    case PendingUpdate.REMOVE:
+                        itemCount -= update.mItemCount;
+                        setLayoutManagerStateItemCount(itemCount);
+                        handled = mLayoutProvider.onItemsRemoved(update.mPositionStart, update.mItemCount);
+                        break;
+                    case PendingUpdate.MOVE:
+                        handled = mLayoutProvider.onItemsMoved(update.mPositionStart, update.mToPosition, update.mItemCount);
+                        break;
+                    case PendingUpdate.CHANGE:
+                        handled = mLayoutProvider.onItemsChanged(update.mPositionStart, update.mItemCount);
+                        break;
+                    default:
+                        throw new AssertionError();
+                }
+                if (!handled) {
+                    return false;
+                }
+            }
+        } finally {
+            mPendingUpdates.clear();
+        }
+        return itemCount == getItemCount();
+    }
+
+    private void setLayoutManagerStateItemCount(int itemCount) {
+        LayoutProvider.LayoutManagerState state = mLayoutProvider.mLayoutManagerState;
+        mLayoutProvider.mLayoutManagerState = new LayoutProvider.LayoutManagerState(
+                state.mLayoutSpaceWidth,
+                state.mLayoutSpaceHeight,
+                itemCount);
     }
 
     @Override
@@ -350,14 +995,21 @@ public class AbsoluteLayoutManager extends RecyclerView.LayoutManager {
         if (adapter != null) {
             adapter.registerAdapterDataObserver(mAdapterObserver);
         }
+        view.addOnScrollListener(mScrollFrameListener);
     }
 
     @Override
     public void onDetachedFromWindow(RecyclerView view, RecyclerView.Recycler recycler) {
+        if (mIsAsyncLayoutPending) {
+            mAsyncLayoutGeneration++; // discard in-flight snapshot
+            mIsAsyncLayoutPending = false;
+            mIsLayoutProviderDirty = true;
+        }
         RecyclerView.Adapter<?> adapter = view.getAdapter();
         if (adapter != null) {
             adapter.unregisterAdapterDataObserver(mAdapterObserver);
         }
+        view.removeOnScrollListener(mScrollFrameListener);
     }
 
     @SuppressWarnings("rawtypes")
@@ -384,7 +1036,11 @@ public class AbsoluteLayoutManager extends RecyclerView.LayoutManager {
         }
 
         prepareLayoutProvider();
-        AnchorHelper.AnchorInfo anchor = AnchorHelper.calculateAnchorItemInRect(mLayoutProvider, mCurrentScrollOffset, getVisibleRect());
+        AnchorHelper.AnchorInfo anchor = AnchorHelper.calculateAnchorItemInRect(mLayoutProvider, mCurrentScrollOffset, getVisibleRect(new Rect()));
+        if (anchor == null) {
+            // First snapshot of AsyncLayoutProvider is not ready yet, so there is nothing to anchor to.
+            return new SavedState(NO_POSITION, null, 0, 0, mPendingScrollPosition, mPendingScrollAlignment);
+        }
         Point point = anchor.getPoint();
         int relativeOffsetX = mCurrentScrollOffset.x - point.x;
         int relativeOffsetY = mCurrentScrollOffset.y - point.y;
@@ -426,10 +1082,140 @@ public class AbsoluteLayoutManager extends RecyclerView.LayoutManager {
 
     @Override
     public RecyclerView.LayoutParams generateDefaultLayoutParams() {
-        return new RecyclerView.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT,
+        return new LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT,
                 ViewGroup.LayoutParams.MATCH_PARENT);
     }
 
+    @Override
+    public RecyclerView.LayoutParams generateLayoutParams(Context c, AttributeSet attrs) {
+        return new LayoutParams(c, attrs);
+    }
+
+    @Override
+    public RecyclerView.LayoutParams generateLayoutParams(ViewGroup.LayoutParams lp) {
+        if (lp instanceof ViewGroup.MarginLayoutParams) {
+            return new LayoutParams((ViewGroup.MarginLayoutParams) lp);
+        } else {
+            return new LayoutParams(lp);
+        }
+    }
+
+    @Override
+    public boolean checkLayoutParams(RecyclerView.LayoutParams lp) {
+        return lp instanceof LayoutParams;
+    }
+
+    /**
+     * Set listener to receive durations and work counts of layout phases, e.g. for sampling in production.
+     * Nothing is measured while it is not set.
+     *
+     * @param listener Listener, or {@code null} to stop measuring.
+     */
+    public void setLayoutMetricsListener(LayoutMetricsListener listener) {
+        mLayoutMetricsListener = listener;
+    }
+
+    /**
+     * @return Counts of views added, recycled, measured etc. since last {@link LayoutCounters#reset()}.
+     */
+    public LayoutCounters getLayoutCounters() {
+        return mLayoutCounters;
+    }
+
+    /**
+     * Set policy to decide area to fill with views around visible rect.
+     * Defaults to {@link AdaptiveFillExtentPolicy}.
+     */
+    public void setFillExtentPolicy(FillExtentPolicy fillExtentPolicy) {
+        mFillExtentPolicy = fillExtentPolicy;
+        mFilledRect.setEmpty();
+        requestLayout();
+    }
+
+    public FillExtentPolicy getFillExtentPolicy() {
+        return mFillExtentPolicy;
+    }
+
+    /**
+     * Forward {@link android.content.ComponentCallbacks2#onTrimMemory(int)} to shrink area filled
+     * with views under memory pressure, according to {@link FillExtentPolicy}.
+     */
+    public void onTrimMemory(int level) {
+        mFillExtentPolicy.onTrimMemory(level);
+        mFilledRect.setEmpty();
+        requestLayout();
+    }
+
+    /**
+     * Set maximum number of items to prefetch for each frame while scrolling, or for initial
+     * layout when nested in another RecyclerView. Defaults to {@value #DEFAULT_PREFETCH_DEPTH}.
+     *
+     * @param prefetchDepth Number of items. Pass 0 to disable prefetch.
+     */
+    public void setPrefetchDepth(int prefetchDepth) {
+        mPrefetchDepth = prefetchDepth;
+    }
+
+    public int getPrefetchDepth() {
+        return mPrefetchDepth;
+    }
+
+    /**
+     * Prefetch items to be filled by next scroll: the part of next maximum fill rect which is
+     * outside of currently filled rect, in scroll direction.
+     */
+    @Override
+    public void collectAdjacentPrefetchPositions(int dx, int dy, RecyclerView.State state, LayoutPrefetchRegistry layoutPrefetchRegistry) {
+        if (mPrefetchDepth <= 0 || getChildCount() == 0 || mIsLayoutProviderDirty || mFilledRect.isEmpty()) return;
+        if (dx == 0 && dy == 0) return;
+        Rect visibleRect = getVisibleRect(mVisibleRect);
+        Rect predictedRect = mPrefetchRect;
+        mFillExtentPolicy.calculateFillRects(visibleRect, dx, dy, mChildViewRect, predictedRect);
+        predictedRect.offset(dx, dy);
+
+        Rect filledRect = mFilledRect;
+        Rect horizontalRect = mHorizontalPrefetchRect;
+        Rect verticalRect = mVerticalPrefetchRect;
+        horizontalRect.setEmpty();
+        verticalRect.setEmpty();
+        if (dx > 0 && predictedRect.right > filledRect.right) {
+            horizontalRect.set(filledRect.right, predictedRect.top, predictedRect.right, predictedRect.bottom);
+        } else if (dx < 0 && predictedRect.left < filledRect.left) {
+            horizontalRect.set(predictedRect.left, predictedRect.top, filledRect.left, predictedRect.bottom);
+        }
+        if (dy > 0 && predictedRect.bottom > filledRect.bottom) {
+            verticalRect.set(predictedRect.left, filledRect.bottom, predictedRect.right, predictedRect.bottom);
+        } else if (dy < 0 && predictedRect.top < filledRect.top) {
+            verticalRect.set(predictedRect.left, predictedRect.top, predictedRect.right, filledRect.top);
+        }
+
+        PrefetchCollector collector = mPrefetchCollector;
+        collector.reset(visibleRect, dx, dy, state.getItemCount());
+        if (!horizontalRect.isEmpty()) {
+            collector.mRectToExclude = null;
+            mLayoutProvider.forEachLayoutAttributeInRect(horizontalRect, collector);
+        }
+        if (!verticalRect.isEmpty()) {
+            collector.mRectToExclude = horizontalRect.isEmpty() ? null : horizontalRect;
+            mLayoutProvider.forEachLayoutAttributeInRect(verticalRect, collector);
+        }
+        collector.register(layoutPrefetchRegistry, mPrefetchDepth);
+    }
+
+    /**
+     * Prefetch items in current visible rect, used when this RecyclerView is nested in another one.
+     */
+    @Override
+    public void collectInitialPrefetchPositions(int adapterItemCount, LayoutPrefetchRegistry layoutPrefetchRegistry) {
+        if (mPrefetchDepth <= 0 || mIsLayoutProviderDirty || getWidth() == 0 || getHeight() == 0) return;
+        if (mLayoutProvider.mLayoutManagerState.mItemCount != adapterItemCount) return;
+        Rect visibleRect = getVisibleRect(mVisibleRect);
+        PrefetchCollector collector = mPrefetchCollector;
+        collector.reset(visibleRect, 0, 0, adapterItemCount);
+        mLayoutProvider.forEachLayoutAttributeInRect(visibleRect, collector);
+        collector.register(layoutPrefetchRegistry, mPrefetchDepth);
+    }
+
     @Override
     public boolean canScrollHorizontally() {
         return mScrollContentWidth > getLayoutSpaceWidth();
@@ -440,6 +1226,14 @@ public class AbsoluteLayoutManager extends RecyclerView.LayoutManager {
         return mScrollContentHeight > getLayoutSpaceHeight();
     }
 
+    @Override
+    public void onScrollStateChanged(int state) {
+        if (state == RecyclerView.SCROLL_STATE_IDLE) {
+            endScrollFrame();
+            mLastFrameScrollDy = 0;
+        }
+    }
+
     @Override
     public int computeHorizontalScrollOffset(RecyclerView.State state) {
         return mCurrentScrollOffset.x;
@@ -507,8 +1301,264 @@ public class AbsoluteLayoutManager extends RecyclerView.LayoutManager {
         startSmoothScroll(linearSmoothScroller);
     }
 
-    private enum Direction {
-        LEFT, TOP, RIGHT, BOTTOM
+    /**
+     * Adds views for visited items. Kept as a field to avoid allocating visitor for each fill.
+     */
+    private class FillVisitor implements LayoutProvider.LayoutAttributeVisitor {
+        private Rect mRectToExclude;
+        private Rect[] mExcludedStrips;
+        private int mExcludedStripCount;
+        private RecyclerView.Recycler mRecycler;
+
+        @Override
+        public void visitLayoutAttribute(int position, int left, int top, int right, int bottom) {
+            mLayoutCounters.mQueriedAttributeCount++;
+            // Previous snapshot of AsyncLayoutProvider may contain removed positions.
+            if (position >= getItemCountToFill()) {
+                return;
+            }
+            if (mRectToExclude != null && mRectToExclude.intersects(left, top, right, bottom)) {
+                return;
+            }
+            if (mLayoutProvider.getPinnedAxes(position) != LayoutProvider.PIN_NONE) {
+                return; // filled by reconcilePinnedChildViews()
+            }
+            for (int i = 0; i < mExcludedStripCount; i++) {
+                if (mExcludedStrips[i].intersects(left, top, right, bottom)) {
+                    return;
+                }
+            }
+            addChildView(position, left, top, right, bottom, mRecycler);
+        }
+    }
+
+    /**
+     * Matches attached views to layout attributes by adapter position.
+     * Attached views are indexed by position in a sorted array, to be looked up in O(log n) without boxing.
+     */
+    private class ReconcileVisitor implements LayoutProvider.LayoutAttributeVisitor {
+        private RecyclerView.Recycler mRecycler;
+        // Only items pinned on exactly these axes are visited.
+        private int mPinnedAxes = LayoutProvider.PIN_NONE;
+        // (position << 32 | index in mViews), sorted.
+        private long[] mKeys = new long[0];
+        // Attached views by child index, set to null when visited.
+        private View[] mViews = new View[0];
+        private int mCount;
+
+        /**
+         * Index attached views in [firstChildIndex, lastChildIndex).
+         */
+        void prepare(int firstChildIndex, int lastChildIndex, RecyclerView.Recycler recycler) {
+            mRecycler = recycler;
+            int childCount = lastChildIndex - firstChildIndex;
+            if (mViews.length < childCount) {
+                mKeys = new long[childCount];
+                mViews = new View[childCount];
+            }
+            mCount = childCount;
+            for (int i = 0; i < childCount; i++) {
+                View childView = getChildAt(firstChildIndex + i);
+                mViews[i] = childView;
+                mKeys[i] = ((long) getPosition(childView) << 32) | i;
+            }
+            Arrays.sort(mKeys, 0, childCount);
+        }
+
+        @Override
+        public void visitLayoutAttribute(int position, int left, int top, int right, int bottom) {
+            mLayoutCounters.mQueriedAttributeCount++;
+            // Previous snapshot of AsyncLayoutProvider may contain removed positions.
+            if (position >= getItemCountToFill()) {
+                return;
+            }
+            if (mLayoutProvider.getPinnedAxes(position) != mPinnedAxes) {
+                return;
+            }
+            View childView = findAttachedView(position);
+            if (childView == null) {
+                addChildView(position, left, top, right, bottom, mPinnedAxes, mRecycler);
+                return;
+            }
+            mLayoutCounters.mKeptViewCount++;
+            int offsetX = getChildViewOffsetX(mPinnedAxes);
+            int offsetY = getChildViewOffsetY(mPinnedAxes);
+            left += offsetX;
+            top += offsetY;
+            right += offsetX;
+            bottom += offsetY;
+            int currentLeft = getDecoratedLeft(childView);
+            int currentTop = getDecoratedTop(childView);
+            int currentRight = getDecoratedRight(childView);
+            int currentBottom = getDecoratedBottom(childView);
+            if (childView.isLayoutRequested()
+                    || right - left != currentRight - currentLeft
+                    || bottom - top != currentBottom - currentTop) {
+                measureChildView(childView, right - left, bottom - top);
+                layoutDecorated(childView, left, top, right, bottom);
+                return;
+            }
+            if (left != currentLeft) {
+                childView.offsetLeftAndRight(left - currentLeft);
+            }
+            if (top != currentTop) {
+                childView.offsetTopAndBottom(top - currentTop);
+            }
+        }
+
+        private View findAttachedView(int position) {
+            int low = 0;
+            int high = mCount - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int midPosition = (int) (mKeys[mid] >> 32);
+                if (midPosition < position) {
+                    low = mid + 1;
+                } else if (midPosition > position) {
+                    high = mid - 1;
+                } else {
+                    int index = (int) mKeys[mid];
+                    View childView = mViews[index];
+                    mViews[index] = null;
+                    return childView;
+                }
+            }
+            return null;
+        }
+
+        void recycleUnvisitedViews() {
+            for (int i = 0; i < mCount; i++) {
+                View childView = mViews[i];
+                if (childView == null) continue;
+                int position = getPosition(childView);
+                if (mIsLayingOutDisappearingViews && mPinnedAxes == LayoutProvider.PIN_NONE
+                        && position < mLayoutProvider.mLayoutManagerState.mItemCount) {
+                    // Moved out of filled rect by adapter changes. Animate it to its new place, under pinned views.
+                    // Index of pinned views is not changed, as the view is detached and added before them.
+                    detachAndScrapView(childView, mRecycler);
+                    addDisappearingView(childView, mFirstPinnedChildIndex - 1);
+                    mLayoutCounters.mKeptViewCount++;
+                    LayoutAttribute layoutAttribute = mLayoutProvider.getLayoutAttributeForItemAtPosition(position);
+                    int offsetX = -mCurrentScrollOffset.x + getPaddingLeft();
+                    int offsetY = -mCurrentScrollOffset.y + getPaddingTop();
+                    measureChildView(childView, layoutAttribute.getWidth(), layoutAttribute.getHeight());
+                    layoutDecorated(childView, layoutAttribute.getLeft() + offsetX, layoutAttribute.getTop() + offsetY,
+                            layoutAttribute.getRight() + offsetX, layoutAttribute.getBottom() + offsetY);
+                } else {
+                    removeAndRecycleView(childView, mRecycler);
+                    mLayoutCounters.mRecycledViewCount++;
+                    if (mPinnedAxes == LayoutProvider.PIN_NONE) {
+                        mFirstPinnedChildIndex--;
+                    }
+                }
+            }
+        }
+
+        void clear() {
+            Arrays.fill(mViews, 0, mCount, null);
+            mCount = 0;
+            mRecycler = null;
+            mPinnedAxes = LayoutProvider.PIN_NONE;
+        }
+    }
+
+    /**
+     * Collects positions to prefetch with distance from visible rect in scroll direction.
+     * Kept as a field and reuses its arrays to avoid allocation for each frame.
+     */
+    private class PrefetchCollector implements LayoutProvider.LayoutAttributeVisitor {
+        private int[] mPositions = new int[16];
+        private int[] mDistances = new int[16];
+        private int mCount;
+        private Rect mVisibleRect;
+        private int mDirectionX;
+        private int mDirectionY;
+        private int mItemCount;
+        private Rect mRectToExclude;
+
+        void reset(Rect visibleRect, int dx, int dy, int itemCount) {
+            mCount = 0;
+            mVisibleRect = visibleRect;
+            mDirectionX = Integer.signum(dx);
+            mDirectionY = Integer.signum(dy);
+            mItemCount = itemCount;
+            mRectToExclude = null;
+        }
+
+        @Override
+        public void visitLayoutAttribute(int position, int left, int top, int right, int bottom) {
+            if (position >= mItemCount) return;
+            if (mFilledRect.intersects(left, top, right, bottom)) return; // already attached
+            if (mLayoutProvider.getPinnedAxes(position) != LayoutProvider.PIN_NONE) return;
+            if (mRectToExclude != null && mRectToExclude.intersects(left, top, right, bottom)) return; // visited twice
+            int distanceX = 0;
+            if (mDirectionX > 0) {
+                distanceX = Math.max(0, left - mVisibleRect.right);
+            } else if (mDirectionX < 0) {
+                distanceX = Math.max(0, mVisibleRect.left - right);
+            }
+            int distanceY = 0;
+            if (mDirectionY > 0) {
+                distanceY = Math.max(0, top - mVisibleRect.bottom);
+            } else if (mDirectionY < 0) {
+                distanceY = Math.max(0, mVisibleRect.top - bottom);
+            }
+            if (mCount == mPositions.length) {
+                mPositions = Arrays.copyOf(mPositions, mCount * 2);
+                mDistances = Arrays.copyOf(mDistances, mCount * 2);
+            }
+            mPositions[mCount] = position;
+            mDistances[mCount] = Math.max(distanceX, distanceY);
+            mCount++;
+        }
+
+        void register(LayoutPrefetchRegistry layoutPrefetchRegistry, int maximumCount) {
+            // Insertion sort by distance, as number of items in prefetch strip is small.
+            for (int i = 1; i < mCount; i++) {
+                int position = mPositions[i];
+                int distance = mDistances[i];
+                int j = i - 1;
+                while (j >= 0 && mDistances[j] > distance) {
+                    mPositions[j + 1] = mPositions[j];
+                    mDistances[j + 1] = mDistances[j];
+                    j--;
+                }
+                mPositions[j + 1] = position;
+                mDistances[j + 1] = distance;
+            }
+            for (int i = 0, count = Math.min(mCount, maximumCount); i < count; i++) {
+                layoutPrefetchRegistry.addPosition(mPositions[i], mDistances[i]);
+            }
+            mVisibleRect = null;
+            mRectToExclude = null;
+        }
+    }
+
+    /**
+     * Layout params which remember last measure specs, to skip measuring views which are not changed.
+     */
+    public static class LayoutParams extends RecyclerView.LayoutParams {
+        // 0 is UNSPECIFIED spec, which is never used by layout manager.
+        private int mWidthMeasureSpec;
+        private int mHeightMeasureSpec;
+        // LayoutProvider.PIN_* of the item, set whenever view is added.
+        private int mPinnedAxes;
+
+        public LayoutParams(Context c, AttributeSet attrs) {
+            super(c, attrs);
+        }
+
+        public LayoutParams(int width, int height) {
+            super(width, height);
+        }
+
+        public LayoutParams(ViewGroup.MarginLayoutParams source) {
+            super(source);
+        }
+
+        public LayoutParams(ViewGroup.LayoutParams source) {
+            super(source);
+        }
     }
 
     /**
@@ -573,6 +1623,18 @@ public class AbsoluteLayoutManager extends RecyclerView.LayoutManager {
     }
 
     public abstract static class LayoutProvider {
+        public static final long NO_DATA_VERSION = Long.MIN_VALUE;
+        public static final int PIN_NONE = 0;
+        /**
+         * Item stays at same horizontal position in viewport, e.g. frozen column.
+         */
+        public static final int PIN_HORIZONTAL = 1;
+        /**
+         * Item stays at same vertical position in viewport, e.g. frozen header row.
+         */
+        public static final int PIN_VERTICAL = 2;
+        public static final int PIN_BOTH = PIN_HORIZONTAL | PIN_VERTICAL;
+
         private LayoutManagerState mLayoutManagerState = new LayoutManagerState();
 
         /**
@@ -611,6 +1673,18 @@ public class AbsoluteLayoutManager extends RecyclerView.LayoutManager {
 
         public abstract void prepareLayout();
 
+        /**
+         * Return value changing whenever data affecting layout changes, to reuse layouts cached by
+         * {@link CacheableLayout#saveLayout()} across adapter changes. If {@link #NO_DATA_VERSION} is returned,
+         * cached layouts are discarded on any adapter change. {@link AbsoluteLayoutManager#invalidateLayout()}
+         * always discards them.
+         *
+         * @return Version of data, or {@link #NO_DATA_VERSION}.
+         */
+        public long getDataVersion() {
+            return NO_DATA_VERSION;
+        }
+
         public abstract int getScrollContentWidth();
 
         public abstract int getScrollContentHeight();
@@ -619,6 +1693,171 @@ public class AbsoluteLayoutManager extends RecyclerView.LayoutManager {
 
         public abstract LayoutAttribute getLayoutAttributeForItemAtPosition(int position);
 
+        /**
+         * Override to expose rects of all items stored in primitive arrays.
+         * Default implementation of {@link #forEachLayoutAttributeInRect(Rect, LayoutAttributeVisitor)}
+         * reads it instead of calling {@link #getLayoutAttributesInRect(Rect)}.
+         *
+         * @return Rects of items indexed by position, or {@code null} if not available.
+         */
+        public PackedLayoutAttributes getPackedLayoutAttributes() {
+            return null;
+        }
+
+        /**
+         * Visits items intersecting with rect. Layout manager calls this instead of
+         * {@link #getLayoutAttributesInRect(Rect)} while filling views.
+         * Override it with an index-backed query to avoid creating {@link LayoutAttribute} objects.
+         *
+         * @param rect    Rect to query, in absolute coordinate.
+         * @param visitor Called for each item intersecting with rect.
+         */
+        public void forEachLayoutAttributeInRect(Rect rect, LayoutAttributeVisitor visitor) {
+            PackedLayoutAttributes packedLayoutAttributes = getPackedLayoutAttributes();
+            if (packedLayoutAttributes != null) {
+                packedLayoutAttributes.forEachLayoutAttributeInRect(rect, visitor);
+                return;
+            }
+            for (LayoutAttribute layoutAttribute : getLayoutAttributesInRect(rect)) {
+                Rect itemRect = layoutAttribute.mRect;
+                visitor.visitLayoutAttribute(layoutAttribute.mPosition, itemRect.left, itemRect.top, itemRect.right, itemRect.bottom);
+            }
+        }
+
+        /**
+         * Collect items visited by {@link #forEachLayoutAttributeInRect(Rect, LayoutAttributeVisitor)}, to implement
+         * {@link #getLayoutAttributesInRect(Rect)} in layout providers overriding the former with an index-backed query.
+         */
+        final List<LayoutAttribute> collectLayoutAttributesInRect(Rect rect) {
+            final List<LayoutAttribute> layoutAttributes = new ArrayList<>();
+            forEachLayoutAttributeInRect(rect, new LayoutAttributeVisitor() {
+                @Override
+                public void visitLayoutAttribute(int position, int left, int top, int right, int bottom) {
+                    layoutAttributes.add(new LayoutAttribute(position, new Rect(left, top, right, bottom)));
+                }
+            });
+            return layoutAttributes;
+        }
+
+        /**
+         * Called instead of {@link #prepareLayout()} when items are inserted and layout space is not
+         * changed. {@link #getState()} already reflects item count after the insertion.
+         * Override to patch layout incrementally.
+         *
+         * @return {@code true} if layout is updated, or {@code false} to fall back to {@link #prepareLayout()}.
+         */
+        public boolean onItemsInserted(int positionStart, int itemCount) {
+            return false;
+        }
+
+        /**
+         * Called instead of {@link #prepareLayout()} when items are removed and layout space is not
+         * changed. {@link #getState()} already reflects item count after the removal.
+         * Override to patch layout incrementally.
+         *
+         * @return {@code true} if layout is updated, or {@code false} to fall back to {@link #prepareLayout()}.
+         */
+        public boolean onItemsRemoved(int positionStart, int itemCount) {
+            return false;
+        }
+
+        /**
+         * Called instead of {@link #prepareLayout()} when items are moved and layout space is not
+         * changed. Override to patch layout incrementally.
+         *
+         * @return {@code true} if layout is updated, or {@code false} to fall back to {@link #prepareLayout()}.
+         */
+        public boolean onItemsMoved(int fromPosition, int toPosition, int itemCount) {
+            return false;
+        }
+
+        /**
+         * Called instead of {@link #prepareLayout()} when content of items is changed in the way
+         * which may affect their layout (see {@link #isContentChangeGeometryStable(int, int)}), and
+         * layout space is not changed. Override to patch layout incrementally.
+         *
+         * @return {@code true} if layout is updated, or {@code false} to fall back to {@link #prepareLayout()}.
+         */
+        public boolean onItemsChanged(int positionStart, int itemCount) {
+            return false;
+        }
+
+        /**
+         * Override to declare that content change of items does not affect their layout, e.g. text
+         * of price or badge is updated in fixed size cell. Return {@code true} regardless of range
+         * if it applies to all items.
+         * If {@code true}, {@link #prepareLayout()} is skipped and only changed visible views are rebound.
+         *
+         * @return {@code true} if rects of changed items are not affected.
+         */
+        public boolean isContentChangeGeometryStable(int positionStart, int itemCount) {
+            return false;
+        }
+
+        /**
+         * Override to return {@code true} if {@link #getPinnedAxes(int)} is implemented.
+         */
+        public boolean hasPinnedItems() {
+            return false;
+        }
+
+        /**
+         * Override to pin items to the viewport on some axes, drawn over other items.
+         * Rect of pinned item is in coordinate of viewport at zero scroll offset on pinned axes,
+         * e.g. rows at top of content are kept at top of viewport while scrolling vertically.
+         * Pinned views are not recycled or rebound by scrolling on their pinned axes.
+         *
+         * @return {@link #PIN_NONE}, {@link #PIN_HORIZONTAL}, {@link #PIN_VERTICAL} or {@link #PIN_BOTH}.
+         */
+        public int getPinnedAxes(int position) {
+            return PIN_NONE;
+        }
+
+        /**
+         * Override to find item nearest to the point by index, instead of visiting all items in the rect.
+         * Used to find anchor item to keep scroll position, e.g. on saving state.
+         *
+         * @return Position of item having a corner inside of rect (including right and bottom edge) nearest to (x, y),
+         * or {@link RecyclerView#NO_POSITION} to fall back to {@link #forEachLayoutAttributeInRect(Rect, LayoutAttributeVisitor)}.
+         */
+        public int findItemWithNearestCornerInRect(Rect rect, int x, int y) {
+            return NO_POSITION;
+        }
+
+        /**
+         * Called before items in the rect are queried for filling views, for layout calculated lazily.
+         *
+         * @param rect                  Rect to be filled.
+         * @param outScrollCompensation Set offset to scroll so that items already shown stay at same place.
+         * @return {@code true} if rects of any item or content size is changed.
+         */
+        boolean prepareRegion(Rect rect, Point outScrollCompensation) {
+            return false;
+        }
+
+        public interface LayoutAttributeVisitor {
+            void visitLayoutAttribute(int position, int left, int top, int right, int bottom);
+        }
+
+        /**
+         * Implement in {@link LayoutProvider} to let layout manager cache layout prepared for each state,
+         * so that it can be restored instead of calling {@link LayoutProvider#prepareLayout()} when layout space size
+         * is changed back (e.g. rotation or multi-window resize).
+         */
+        public interface CacheableLayout {
+            /**
+             * Returned object is kept as is, so it must not be modified afterwards.
+             *
+             * @return Object holding current layout, or {@code null} not to cache.
+             */
+            Object saveLayout();
+
+            /**
+             * Restore layout returned by {@link #saveLayout()}, for same {@link LayoutProvider#getState()} and data version.
+             */
+            void restoreLayout(Object layout);
+        }
+
         public static class LayoutManagerState {
             private final int mLayoutSpaceWidth;
             private final int mLayoutSpaceHeight;
@@ -656,6 +1895,29 @@ public class AbsoluteLayoutManager extends RecyclerView.LayoutManager {
             public int getItemCount() {
                 return mItemCount;
             }
+
+            @Override
+            public boolean equals(Object o) {
+                if (this == o) return true;
+                if (!(o instanceof LayoutManagerState)) return false;
+                LayoutManagerState that = (LayoutManagerState) o;
+                return mLayoutSpaceWidth == that.mLayoutSpaceWidth
+                        && mLayoutSpaceHeight == that.mLayoutSpaceHeight
+                        && mItemCount == that.mItemCount;
+            }
+
+            @Override
+            public int hashCode() {
+                int result = mLayoutSpaceWidth;
+                result = 31 * result + mLayoutSpaceHeight;
+                result = 31 * result + mItemCount;
+                return result;
+            }
+
+            @Override
+            public String toString() {
+                return "LayoutManagerState{" + mLayoutSpaceWidth + "x" + mLayoutSpaceHeight + ", itemCount=" + mItemCount + "}";
+            }
         }
 
         public static class LayoutAttribute {
@@ -729,30 +1991,72 @@ public class AbsoluteLayoutManager extends RecyclerView.LayoutManager {
      * onSaveInstanceState()).
      * Refer: https://github.com/ypresto/RecyclerView-AbsoluteLayoutManager/issues/7
      */
+    /**
+     * Ends frame of horizontal only scroll, as RecyclerView dispatches onScrolled() after scrolling both axes of a frame.
+     */
+    private class ScrollFrameListener extends RecyclerView.OnScrollListener {
+        @Override
+        public void onScrolled(RecyclerView recyclerView, int dx, int dy) {
+            if (mIsHorizontalScrollInFrame) {
+                endScrollFrame();
+            }
+        }
+    }
+
     private class AdapterObserver extends RecyclerView.AdapterDataObserver {
         @Override
         public void onChanged() {
+            invalidateLayoutCacheForDataChange();
             mIsLayoutProviderDirty = true;
         }
 
         @Override
         public void onItemRangeChanged(int positionStart, int itemCount) {
-            mIsLayoutProviderDirty = true;
+            if (mLayoutProvider.isContentChangeGeometryStable(positionStart, itemCount)) {
+                mHasPendingContentChanges = true;
+            } else {
+                addPendingUpdate(PendingUpdate.CHANGE, positionStart, NO_POSITION, itemCount);
+            }
         }
 
         @Override
         public void onItemRangeInserted(int positionStart, int itemCount) {
-            mIsLayoutProviderDirty = true;
+            addPendingUpdate(PendingUpdate.INSERT, positionStart, NO_POSITION, itemCount);
         }
 
         @Override
         public void onItemRangeRemoved(int positionStart, int itemCount) {
-            mIsLayoutProviderDirty = true;
+            addPendingUpdate(PendingUpdate.REMOVE, positionStart, NO_POSITION, itemCount);
         }
 
         @Override
         public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
-            mIsLayoutProviderDirty = true;
+            addPendingUpdate(PendingUpdate.MOVE, fromPosition, toPosition, itemCount);
+        }
+
+        private void addPendingUpdate(int type, int positionStart, int toPosition, int itemCount) {
+            invalidateLayoutCacheForDataChange();
+            if (mIsLayoutProviderDirty) return; // prepareLayout() will handle everything.
+            mPendingUpdates.add(new PendingUpdate(type, positionStart, toPosition, itemCount));
+        }
+    }
+
+    private static class PendingUpdate {
+        static final int INSERT = 0;
+        static final int REMOVE = 1;
+        static final int MOVE = 2;
+        static final int CHANGE = 3;
+
+        final int mType;
+        final int mPositionStart;
+        final int mToPosition;
+        final int mItemCount;
+
+        PendingUpdate(int type, int positionStart, int toPosition, int itemCount) {
+            mType = type;
+            mPositionStart = positionStart;
+            mToPosition = toPosition;
+            mItemCount = itemCount;
         }
     }
 }
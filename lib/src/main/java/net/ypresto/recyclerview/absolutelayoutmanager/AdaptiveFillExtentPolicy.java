@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) 2015 Yuya Tanaka
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ypresto.recyclerview.absolutelayoutmanager;
+
+import android.content.ComponentCallbacks2;
+import android.graphics.Rect;
+import android.os.SystemClock;
+
+/**
+ * Default {@link FillExtentPolicy}. Extends visible rect by a fixed factor while idle, grows the
+ * leading edge in proportion to scroll speed and shrinks the trailing edge while scrolling.
+ * Extra area is pulled back on {@link #onTrimMemory(int)} and recovered gradually over time.
+ * Calculating fill rects has no side effect, so it can also be used to predict fill rect for prefetch.
+ */
+public class AdaptiveFillExtentPolicy extends FillExtentPolicy {
+    public static final float DEFAULT_EXTENT_FACTOR = 0.33f; // MAX_SCROLL_FACTOR of LinearLayoutManager
+    public static final float DEFAULT_MAXIMUM_LEADING_FACTOR = 1.0f;
+    public static final float DEFAULT_LOOKAHEAD_FRAMES = 4.0f;
+    private static final float TRAILING_FACTOR_WHILE_SCROLLING = 0.5f;
+    // Fully recovers from critical memory level in 30 seconds.
+    private static final float MEMORY_SCALE_RECOVERY_PER_MILLIS = 1.0f / 30000;
+
+    private final float mExtentFactor;
+    private final float mMaximumLeadingFactor;
+    private final float mLookaheadFrames;
+    // Memory scale set by onTrimMemory(), and the time it was set.
+    private float mTrimmedMemoryScale = 1.0f;
+    private long mTrimmedUptimeMillis;
+
+    public AdaptiveFillExtentPolicy() {
+        this(DEFAULT_EXTENT_FACTOR, DEFAULT_MAXIMUM_LEADING_FACTOR, DEFAULT_LOOKAHEAD_FRAMES);
+    }
+
+    /**
+     * @param extentFactor         Area to fill around visible rect while idle, relative to its size, divided to both edges.
+     * @param maximumLeadingFactor Upper limit of area to fill at leading edge while scrolling, relative to visible size.
+     * @param lookaheadFrames      Number of frames of current scroll distance to fill ahead at leading edge.
+     */
+    public AdaptiveFillExtentPolicy(float extentFactor, float maximumLeadingFactor, float lookaheadFrames) {
+        mExtentFactor = extentFactor;
+        mMaximumLeadingFactor = maximumLeadingFactor;
+        mLookaheadFrames = lookaheadFrames;
+    }
+
+    @Override
+    public void calculateFillRects(Rect visibleRect, int dx, int dy, Rect outMinimumRect, Rect outMaximumRect) {
+        outMinimumRect.set(visibleRect);
+        int width = visibleRect.width();
+        int height = visibleRect.height();
+        float memoryScale = getMemoryScale();
+        int leftExtent = calculateExtent(width, -dx, memoryScale);
+        int rightExtent = calculateExtent(width, dx, memoryScale);
+        int topExtent = calculateExtent(height, -dy, memoryScale);
+        int bottomExtent = calculateExtent(height, dy, memoryScale);
+        outMaximumRect.set(
+                visibleRect.left - leftExtent,
+                visibleRect.top - topExtent,
+                visibleRect.right + rightExtent,
+                visibleRect.bottom + bottomExtent);
+    }
+
+    /**
+     * @return Scale of extra area, recovering linearly since last {@link #onTrimMemory(int)}.
+     */
+    private float getMemoryScale() {
+        if (mTrimmedMemoryScale >= 1.0f) return 1.0f;
+        long elapsedMillis = SystemClock.uptimeMillis() - mTrimmedUptimeMillis;
+        return Math.min(1.0f, mTrimmedMemoryScale + elapsedMillis * MEMORY_SCALE_RECOVERY_PER_MILLIS);
+    }
+
+    /**
+     * @param length      Length of visible rect along the axis.
+     * @param distance    Scroll distance toward the edge. Negative if scrolling away from it.
+     * @param memoryScale Scale of extra area by {@link #getMemoryScale()}.
+     */
+    private int calculateExtent(int length, int distance, float memoryScale) {
+        float extent = length * mExtentFactor / 2.0f;
+        if (distance > 0) {
+            extent = Math.min(extent + distance * mLookaheadFrames, Math.max(extent, length * mMaximumLeadingFactor));
+        } else if (distance < 0) {
+            extent *= TRAILING_FACTOR_WHILE_SCROLLING;
+        }
+        return Math.round(extent * memoryScale);
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        float memoryScale;
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL) {
+            memoryScale = 0.0f;
+        } else if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW) {
+            memoryScale = 0.5f;
+        } else if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_MODERATE) {
+            memoryScale = 0.75f;
+        } else {
+            return;
+        }
+        mTrimmedMemoryScale = Math.min(getMemoryScale(), memoryScale);
+        mTrimmedUptimeMillis = SystemClock.uptimeMillis();
+    }
+}
@@ -2,9 +2,7 @@ package net.ypresto.recyclerview.absolutelayoutmanager;
 
 import android.graphics.Point;
 import android.graphics.Rect;
-
-import java.util.Arrays;
-import java.util.List;
+import android.support.v7.widget.RecyclerView;
 
 class AnchorHelper {
 
@@ -12,63 +10,110 @@ class AnchorHelper {
         throw new AssertionError();
     }
 
+    /**
+     * @return Anchor item, or {@code null} if layout provider has no item (e.g. first snapshot of
+     * {@link AsyncLayoutProvider} is not ready yet).
+     */
     static AnchorInfo calculateAnchorItemInRect(AbsoluteLayoutManager.LayoutProvider layoutProvider, Point currentScrollOffset, Rect rect) {
-        List<AbsoluteLayoutManager.LayoutProvider.LayoutAttribute> layoutAttributesInRect = layoutProvider.getLayoutAttributesInRect(rect);
-        AbsoluteLayoutManager.LayoutProvider.LayoutAttribute nearestLayoutAttribute = null;
-        Corner nearestCorner = null;
-        double nearestDistance = Double.MAX_VALUE;
         int currentX = currentScrollOffset.x;
         int currentY = currentScrollOffset.y;
 
-        Point point = new Point();
-        for (AbsoluteLayoutManager.LayoutProvider.LayoutAttribute layoutAttribute : layoutAttributesInRect) {
-            for (Corner corner : Corner.VALUES) {
-                corner.writeToPointForRect(point, layoutAttribute.mRect);
-                // skip not visible
-                // NOTE: Not using rect.contains() because it does not include right and bottom edge.
-                if (point.x < rect.left || point.y < rect.top || point.x > rect.right || point.y > rect.bottom)
-                    continue;
-                double distance = Math.sqrt(Math.pow(point.x - currentX, 2) * Math.pow(point.y - currentY, 2));
-                if (distance < nearestDistance) {
-                    nearestLayoutAttribute = layoutAttribute;
-                    nearestCorner = corner;
-                    nearestDistance = distance;
-                }
+        int position = layoutProvider.findItemWithNearestCornerInRect(rect, currentX, currentY);
+        if (position != RecyclerView.NO_POSITION) {
+            AbsoluteLayoutManager.LayoutProvider.LayoutAttribute layoutAttribute = layoutProvider.getLayoutAttributeForItemAtPosition(position);
+            Rect itemRect = layoutAttribute.mRect;
+            Corner corner = findNearestCorner(itemRect.left, itemRect.top, itemRect.right, itemRect.bottom, rect, currentX, currentY);
+            if (corner != null) {
+                return new AnchorInfo(layoutAttribute, corner);
             }
         }
 
-        if (nearestLayoutAttribute == null) {
+        NearestCornerVisitor visitor = new NearestCornerVisitor(rect, currentX, currentY);
+        layoutProvider.forEachLayoutAttributeInRect(rect, visitor);
+        if (visitor.mPosition == RecyclerView.NO_POSITION) {
+            if (layoutProvider.getState().getItemCount() == 0) {
+                return null;
+            }
             return new AnchorInfo(layoutProvider.getLayoutAttributeForItemAtPosition(0), Corner.TOP_LEFT);
         }
-        return new AnchorInfo(nearestLayoutAttribute, nearestCorner);
+        return new AnchorInfo(layoutProvider.getLayoutAttributeForItemAtPosition(visitor.mPosition), visitor.mCorner);
+    }
+
+    /**
+     * @return Corner of item inside of rect nearest to (x, y), or {@code null} if no corner is inside.
+     */
+    static Corner findNearestCorner(int left, int top, int right, int bottom, Rect rect, int x, int y) {
+        Corner nearestCorner = null;
+        long nearestDistance = Long.MAX_VALUE;
+        for (Corner corner : Corner.VALUES) {
+            long distance = calculateCornerDistanceSquared(corner, left, top, right, bottom, rect, x, y);
+            if (distance < nearestDistance) {
+                nearestCorner = corner;
+                nearestDistance = distance;
+            }
+        }
+        return nearestCorner;
+    }
+
+    /**
+     * @return Squared distance from (x, y) to the corner, or {@link Long#MAX_VALUE} if the corner is not inside of rect.
+     */
+    static long calculateCornerDistanceSquared(Corner corner, int left, int top, int right, int bottom, Rect rect, int x, int y) {
+        int cornerX = corner.getX(left, right);
+        int cornerY = corner.getY(top, bottom);
+        // skip not visible
+        // NOTE: Not using rect.contains() because it does not include right and bottom edge.
+        if (cornerX < rect.left || cornerY < rect.top || cornerX > rect.right || cornerY > rect.bottom) {
+            return Long.MAX_VALUE;
+        }
+        long dx = (long) cornerX - x;
+        long dy = (long) cornerY - y;
+        return dx * dx + dy * dy;
+    }
+
+    private static class NearestCornerVisitor implements AbsoluteLayoutManager.LayoutProvider.LayoutAttributeVisitor {
+        private final Rect mRect;
+        private final int mX;
+        private final int mY;
+        private int mPosition = RecyclerView.NO_POSITION;
+        private Corner mCorner;
+        private long mDistance = Long.MAX_VALUE;
+
+        NearestCornerVisitor(Rect rect, int x, int y) {
+            mRect = rect;
+            mX = x;
+            mY = y;
+        }
+
+        @Override
+        public void visitLayoutAttribute(int position, int left, int top, int right, int bottom) {
+            for (Corner corner : Corner.VALUES) {
+                long distance = calculateCornerDistanceSquared(corner, left, top, right, bottom, mRect, mX, mY);
+                if (distance < mDistance) {
+                    mPosition = position;
+                    mCorner = corner;
+                    mDistance = distance;
+                }
+            }
+        }
     }
 
     enum Corner {
         TOP_LEFT, TOP_RIGHT, BOTTOM_LEFT, BOTTOM_RIGHT;
 
-        static final List<Corner> VALUES = Arrays.asList(values());
+        // Array instead of List, to iterate without allocating iterator.
+        static final Corner[] VALUES = values();
 
-        Point getPointForRect(Rect rect) {
-            Point point = new Point();
-            writeToPointForRect(point, rect);
-            return point;
+        int getX(int left, int right) {
+            return this == TOP_LEFT || this == BOTTOM_LEFT ? left : right;
         }
 
-        void writeToPointForRect(Point point, Rect rect) {
-            switch (this) {
-                case TOP_LEFT:
-                    point.set(rect.left, rect.top);
-                    break;
-                case TOP_RIGHT:
-                    point.set(rect.right, rect.top);
-                    break;
-                case BOTTOM_LEFT:
-                    point.set(rect.left, rect.bottom);
-                    break;
-                case BOTTOM_RIGHT:
-                    point.set(rect.right, rect.bottom);
-                    break;
-            }
+        int getY(int top, int bottom) {
+            return this == TOP_LEFT || this == TOP_RIGHT ? top : bottom;
+        }
+
+        Point getPointForRect(Rect rect) {
+            return new Point(getX(rect.left, rect.right), getY(rect.top, rect.bottom));
         }
     }
 
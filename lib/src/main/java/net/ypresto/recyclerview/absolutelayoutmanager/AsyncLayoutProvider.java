@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) 2015 Yuya Tanaka
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ypresto.recyclerview.absolutelayoutmanager;
+
+import android.graphics.Rect;
+
+import java.util.List;
+
+/**
+ * {@link AbsoluteLayoutManager.LayoutProvider} which calculates layout into an immutable
+ * {@link LayoutSnapshot}. If {@link AbsoluteLayoutManager#setPrepareLayoutExecutor(java.util.concurrent.Executor)}
+ * is set, snapshot is created on the executor and layout manager keeps using previous snapshot
+ * until new one is ready. Otherwise it is created synchronously in {@link #prepareLayout()}.
+ */
+public abstract class AsyncLayoutProvider extends AbsoluteLayoutManager.LayoutProvider implements AbsoluteLayoutManager.LayoutProvider.CacheableLayout {
+    private volatile LayoutSnapshot mSnapshot = new LayoutSnapshot(0, 0, new PackedLayoutAttributes());
+
+    /**
+     * Calculate layout for the state. This may be called on background thread, so it must not
+     * touch adapter or anything mutated on main thread. Use passed state instead of {@link #getState()},
+     * which still returns state of current snapshot while calculating.
+     *
+     * @param state State of layout manager to calculate layout for.
+     * @return New snapshot.
+     */
+    protected abstract LayoutSnapshot createLayoutSnapshot(LayoutManagerState state);
+
+    @Override
+    public final void prepareLayout() {
+        mSnapshot = createLayoutSnapshot(getState());
+    }
+
+    /**
+     * @return Snapshot currently used for layout.
+     */
+    public final LayoutSnapshot getSnapshot() {
+        return mSnapshot;
+    }
+
+    void setSnapshot(LayoutSnapshot snapshot) {
+        mSnapshot = snapshot;
+    }
+
+    /**
+     * @return Current snapshot, which is immutable and can be cached as is.
+     */
+    @Override
+    public Object saveLayout() {
+        return mSnapshot;
+    }
+
+    @Override
+    public void restoreLayout(Object layout) {
+        mSnapshot = (LayoutSnapshot) layout;
+    }
+
+    @Override
+    public int getScrollContentWidth() {
+        return mSnapshot.getScrollContentWidth();
+    }
+
+    @Override
+    public int getScrollContentHeight() {
+        return mSnapshot.getScrollContentHeight();
+    }
+
+    @Override
+    public PackedLayoutAttributes getPackedLayoutAttributes() {
+        return mSnapshot.mAttributes;
+    }
+
+    @Override
+    public List<LayoutAttribute> getLayoutAttributesInRect(Rect rect) {
+        return collectLayoutAttributesInRect(rect);
+    }
+
+    @Override
+    public void forEachLayoutAttributeInRect(Rect rect, LayoutAttributeVisitor visitor) {
+        mSnapshot.mIndex.forEachLayoutAttributeInRect(rect, visitor);
+    }
+
+    @Override
+    public int findItemWithNearestCornerInRect(Rect rect, int x, int y) {
+        return mSnapshot.mIndex.findItemWithNearestCornerInRect(rect, x, y);
+    }
+
+    @Override
+    public LayoutAttribute getLayoutAttributeForItemAtPosition(int position) {
+        return mSnapshot.mAttributes.createLayoutAttribute(position);
+    }
+
+    /**
+     * Immutable result of layout calculation, indexed for rect queries on creation.
+     */
+    public static final class LayoutSnapshot {
+        private final int mScrollContentWidth;
+        private final int mScrollContentHeight;
+        private final PackedLayoutAttributes mAttributes;
+        private final GridIndex mIndex;
+
+        /**
+         * @param scrollContentWidth  Width of whole content.
+         * @param scrollContentHeight Height of whole content.
+         * @param attributes          Rects of all items. Owned by snapshot, must not be modified after this call.
+         */
+        public LayoutSnapshot(int scrollContentWidth, int scrollContentHeight, PackedLayoutAttributes attributes) {
+            mScrollContentWidth = scrollContentWidth;
+            mScrollContentHeight = scrollContentHeight;
+            mAttributes = attributes;
+            mIndex = new GridIndex(attributes);
+        }
+
+        public int getScrollContentWidth() {
+            return mScrollContentWidth;
+        }
+
+        public int getScrollContentHeight() {
+            return mScrollContentHeight;
+        }
+
+        public int getItemCount() {
+            return mAttributes.size();
+        }
+    }
+}
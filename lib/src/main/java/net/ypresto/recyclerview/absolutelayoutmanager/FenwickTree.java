@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2015 Yuya Tanaka
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ypresto.recyclerview.absolutelayoutmanager;
+
+/**
+ * Binary indexed tree of lengths, for O(log n) offset lookup and update of variable length segments.
+ */
+class FenwickTree {
+    private final long[] mTree;
+    private final int mSize;
+
+    /**
+     * Build tree from lengths in O(n).
+     */
+    FenwickTree(int[] lengths, int size) {
+        mSize = size;
+        mTree = new long[size + 1];
+        for (int i = 0; i < size; i++) {
+            mTree[i + 1] += lengths[i];
+            int parent = (i + 1) + ((i + 1) & -(i + 1));
+            if (parent <= size) {
+                mTree[parent] += mTree[i + 1];
+            }
+        }
+    }
+
+    int size() {
+        return mSize;
+    }
+
+    void add(int index, long delta) {
+        for (int i = index + 1; i <= mSize; i += i & -i) {
+            mTree[i] += delta;
+        }
+    }
+
+    /**
+     * @return Length at index.
+     */
+    long get(int index) {
+        return prefixSum(index + 1) - prefixSum(index);
+    }
+
+    /**
+     * @return Sum of lengths in [0, count).
+     */
+    long prefixSum(int count) {
+        long sum = 0;
+        for (int i = count; i > 0; i -= i & -i) {
+            sum += mTree[i];
+        }
+        return sum;
+    }
+
+    long sum() {
+        return prefixSum(mSize);
+    }
+
+    /**
+     * @return Index of segment containing offset, i.e. largest index whose prefix sum is &lt;= offset.
+     * Clamped to [0, size - 1].
+     */
+    int indexOf(long offset) {
+        int index = 0;
+        long remaining = offset;
+        for (int step = Integer.highestOneBit(Math.max(1, mSize)); step > 0; step >>= 1) {
+            int next = index + step;
+            if (next <= mSize && mTree[next] <= remaining) {
+                index = next;
+                remaining -= mTree[next];
+            }
+        }
+        return Math.max(0, Math.min(mSize - 1, index));
+    }
+}
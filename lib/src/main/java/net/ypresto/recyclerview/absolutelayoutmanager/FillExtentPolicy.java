@@ -0,0 +1,45 @@
+/*
+ * Copyright (C) 2015 Yuya Tanaka
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ypresto.recyclerview.absolutelayoutmanager;
+
+import android.graphics.Rect;
+
+/**
+ * Decides how much area around visible rect {@link AbsoluteLayoutManager} fills with views.
+ * Larger area reduces binding views in scroll frame, at the cost of memory for attached views.
+ * Called for every scroll frame, so implementations should not allocate objects.
+ */
+public abstract class FillExtentPolicy {
+    /**
+     * Calculate rects to fill, in absolute coordinate.
+     * Also called to predict rects for prefetch, so it should not change state of the policy.
+     *
+     * @param visibleRect    Currently visible rect, including padding area.
+     * @param dx             Horizontal scroll distance of this frame, or 0 if not scrolling.
+     * @param dy             Vertical scroll distance of this frame, or 0 if not scrolling.
+     * @param outMinimumRect Write rect which must be filled. Views are filled when filled rect does not contain it.
+     * @param outMaximumRect Write rect to fill at most when filling. Must contain outMinimumRect.
+     */
+    public abstract void calculateFillRects(Rect visibleRect, int dx, int dy, Rect outMinimumRect, Rect outMaximumRect);
+
+    /**
+     * Called from {@link AbsoluteLayoutManager#onTrimMemory(int)}. Override to shrink fill area.
+     *
+     * @param level Level passed to {@link android.content.ComponentCallbacks2#onTrimMemory(int)}.
+     */
+    public void onTrimMemory(int level) {
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright (C) 2015 Yuya Tanaka
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ypresto.recyclerview.absolutelayoutmanager;
+
+import android.graphics.Rect;
+
+/**
+ * Rect math of filling views, kept free of layout manager state so that it can run on plain JVM.
+ */
+class FillRectHelper {
+    private FillRectHelper() {
+        throw new AssertionError();
+    }
+
+    /**
+     * Split newRect minus oldRect into up to four disjoint strips: full width strips above and below
+     * oldRect, and strips left and right of it between them.
+     *
+     * @param outStrips Array of at least four rects to write strips.
+     * @return Number of strips written.
+     */
+    static int calculateDifferenceStrips(Rect newRect, Rect oldRect, Rect[] outStrips) {
+        int stripCount = 0;
+        int bandTop = Math.max(newRect.top, oldRect.top);
+        int bandBottom = Math.min(newRect.bottom, oldRect.bottom);
+        if (newRect.top < oldRect.top) {
+            outStrips[stripCount++].set(newRect.left, newRect.top, newRect.right, bandTop);
+        }
+        if (newRect.bottom > oldRect.bottom) {
+            outStrips[stripCount++].set(newRect.left, bandBottom, newRect.right, newRect.bottom);
+        }
+        if (newRect.left < oldRect.left && bandTop < bandBottom) {
+            outStrips[stripCount++].set(newRect.left, bandTop, oldRect.left, bandBottom);
+        }
+        if (newRect.right > oldRect.right && bandTop < bandBottom) {
+            outStrips[stripCount++].set(oldRect.right, bandTop, newRect.right, bandBottom);
+        }
+        return stripCount;
+    }
+}
@@ -0,0 +1,252 @@
+/*
+ * Copyright (C) 2015 Yuya Tanaka
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ypresto.recyclerview.absolutelayoutmanager;
+
+import android.graphics.Rect;
+
+import net.ypresto.recyclerview.absolutelayoutmanager.AbsoluteLayoutManager.LayoutProvider.LayoutAttributeVisitor;
+
+/**
+ * Uniform grid index over {@link PackedLayoutAttributes}. Immutable once built, so it can be
+ * built on background thread and read from main thread.
+ */
+class GridIndex {
+    // Upper bound of cell count relative to item count, to keep memory of index linear.
+    private static final int MAXIMUM_CELLS_PER_ITEM = 2;
+
+    private final PackedLayoutAttributes mAttributes;
+    private int mOriginX;
+    private int mOriginY;
+    private int mCellWidth = 1;
+    private int mCellHeight = 1;
+    private int mColumnCount;
+    private int mRowCount;
+    // Positions of each cell are stored in mCellPositions[mCellStarts[cell]..mCellStarts[cell + 1]).
+    private int[] mCellStarts = new int[1];
+    private int[] mCellPositions = new int[0];
+
+    /**
+     * Build index of current rects in attributes. Attributes must not be modified while index is used.
+     */
+    GridIndex(PackedLayoutAttributes attributes) {
+        mAttributes = attributes;
+        buildIndex();
+    }
+
+    void forEachLayoutAttributeInRect(Rect rect, LayoutAttributeVisitor visitor) {
+        PackedLayoutAttributes attributes = mAttributes;
+        if (attributes.size() == 0) return;
+        int firstColumn = getColumnForX(rect.left);
+        int lastColumn = getColumnForX(Math.max(rect.left, rect.right - 1));
+        int firstRow = getRowForY(rect.top);
+        int lastRow = getRowForY(Math.max(rect.top, rect.bottom - 1));
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                int cell = row * mColumnCount + column;
+                for (int i = mCellStarts[cell], end = mCellStarts[cell + 1]; i < end; i++) {
+                    int position = mCellPositions[i];
+                    int left = attributes.getLeft(position);
+                    int top = attributes.getTop(position);
+                    int right = attributes.getRight(position);
+                    int bottom = attributes.getBottom(position);
+                    if (!rect.intersects(left, top, right, bottom)) {
+                        continue;
+                    }
+                    // Item spanning multiple cells is reported only from the cell containing
+                    // top-left corner of its intersection with the rect.
+                    if (getColumnForX(Math.max(left, rect.left)) != column
+                            || getRowForY(Math.max(top, rect.top)) != row) {
+                        continue;
+                    }
+                    visitor.visitLayoutAttribute(position, left, top, right, bottom);
+                }
+            }
+        }
+    }
+
+    /**
+     * Search cells in rings around the point, until no closer corner can be found in outer rings.
+     *
+     * @return Position of item having a corner inside of rect nearest to (x, y), or {@link android.support.v7.widget.RecyclerView#NO_POSITION}.
+     */
+    int findItemWithNearestCornerInRect(Rect rect, int x, int y) {
+        PackedLayoutAttributes attributes = mAttributes;
+        int nearestPosition = -1;
+        if (attributes.size() == 0) return nearestPosition;
+        long nearestDistance = Long.MAX_VALUE;
+        // Corner at right or bottom edge may be in the cell next to ones the item is indexed in.
+        int firstColumn = getColumnForX(rect.left - 1);
+        int lastColumn = getColumnForX(rect.right);
+        int firstRow = getRowForY(rect.top - 1);
+        int lastRow = getRowForY(rect.bottom);
+        int centerColumn = Math.max(firstColumn, Math.min(lastColumn, getColumnForX(x)));
+        int centerRow = Math.max(firstRow, Math.min(lastRow, getRowForY(y)));
+        long cellSize = Math.min(mCellWidth, mCellHeight);
+        int maximumRing = Math.max(
+                Math.max(centerColumn - firstColumn, lastColumn - centerColumn),
+                Math.max(centerRow - firstRow, lastRow - centerRow));
+        for (int ring = 0; ring <= maximumRing; ring++) {
+            // Corners in this ring are at least (ring - 1) cells away, as they can be on far edge of neighbor cell.
+            long minimumDistance = Math.max(0, ring - 1) * cellSize;
+            if (nearestDistance <= minimumDistance * minimumDistance) break;
+            for (int row = Math.max(firstRow, centerRow - ring), endRow = Math.min(lastRow, centerRow + ring); row <= endRow; row++) {
+                boolean isEdgeRow = row == centerRow - ring || row == centerRow + ring;
+                int step = isEdgeRow ? 1 : 2 * ring;
+                for (int column = centerColumn - ring; column <= centerColumn + ring; column += Math.max(1, step)) {
+                    if (column < firstColumn || column > lastColumn) continue;
+                    int cell = row * mColumnCount + column;
+                    for (int i = mCellStarts[cell], end = mCellStarts[cell + 1]; i < end; i++) {
+                        int position = mCellPositions[i];
+                        for (AnchorHelper.Corner corner : AnchorHelper.Corner.VALUES) {
+                            long distance = AnchorHelper.calculateCornerDistanceSquared(corner,
+                                    attributes.getLeft(position), attributes.getTop(position),
+                                    attributes.getRight(position), attributes.getBottom(position), rect, x, y);
+                            if (distance < nearestDistance) {
+                                nearestPosition = position;
+                                nearestDistance = distance;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return nearestPosition;
+    }
+
+    private void buildIndex() {
+        PackedLayoutAttributes attributes = mAttributes;
+        int itemCount = attributes.size();
+        int minX = Integer.MAX_VALUE;
+        int minY = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE;
+        int maxY = Integer.MIN_VALUE;
+        long totalWidth = 0;
+        long totalHeight = 0;
+        for (int i = 0; i < itemCount; i++) {
+            minX = Math.min(minX, attributes.getLeft(i));
+            minY = Math.min(minY, attributes.getTop(i));
+            maxX = Math.max(maxX, attributes.getRight(i));
+            maxY = Math.max(maxY, attributes.getBottom(i));
+            totalWidth += attributes.getWidth(i);
+            totalHeight += attributes.getHeight(i);
+        }
+        if (itemCount == 0) {
+            mOriginX = 0;
+            mOriginY = 0;
+            mCellWidth = 1;
+            mCellHeight = 1;
+            mColumnCount = 1;
+            mRowCount = 1;
+            mCellStarts = new int[2];
+            return;
+        }
+
+        // Cell of average item size keeps both items per cell and cells per item small.
+        long boundsWidth = (long) maxX - minX;
+        long boundsHeight = (long) maxY - minY;
+        double cellWidth = Math.max(1.0, (double) totalWidth / itemCount);
+        double cellHeight = Math.max(1.0, (double) totalHeight / itemCount);
+        double cellCount = Math.ceil(boundsWidth / cellWidth) * Math.ceil(boundsHeight / cellHeight);
+        double maximumCellCount = (double) MAXIMUM_CELLS_PER_ITEM * itemCount;
+        if (cellCount > maximumCellCount) {
+            double scale = Math.sqrt(cellCount / maximumCellCount);
+            cellWidth *= scale;
+            cellHeight *= scale;
+        }
+        mOriginX = minX;
+        mOriginY = minY;
+        mCellWidth = (int) Math.min(Integer.MAX_VALUE, Math.ceil(cellWidth));
+        mCellHeight = (int) Math.min(Integer.MAX_VALUE, Math.ceil(cellHeight));
+        mColumnCount = (int) Math.max(1, (boundsWidth + mCellWidth - 1) / mCellWidth);
+        mRowCount = (int) Math.max(1, (boundsHeight + mCellHeight - 1) / mCellHeight);
+
+        int cellTotal = mColumnCount * mRowCount;
+        int[] cellStarts = new int[cellTotal + 1];
+        for (int i = 0; i < itemCount; i++) {
+            int firstColumn = getColumnForX(attributes.getLeft(i));
+            int lastColumn = getColumnForX(Math.max(attributes.getLeft(i), attributes.getRight(i) - 1));
+            for (int row = getRowForY(attributes.getTop(i)), lastRow = getRowForY(Math.max(attributes.getTop(i), attributes.getBottom(i) - 1)); row <= lastRow; row++) {
+                for (int column = firstColumn; column <= lastColumn; column++) {
+                    cellStarts[row * mColumnCount + column + 1]++;
+                }
+            }
+        }
+        for (int cell = 0; cell < cellTotal; cell++) {
+            cellStarts[cell + 1] += cellStarts[cell];
+        }
+        int[] cellPositions = new int[cellStarts[cellTotal]];
+        int[] cellFilled = new int[cellTotal];
+        for (int i = 0; i < itemCount; i++) {
+            int firstColumn = getColumnForX(attributes.getLeft(i));
+            int lastColumn = getColumnForX(Math.max(attributes.getLeft(i), attributes.getRight(i) - 1));
+            for (int row = getRowForY(attributes.getTop(i)), lastRow = getRowForY(Math.max(attributes.getTop(i), attributes.getBottom(i) - 1)); row <= lastRow; row++) {
+                for (int column = firstColumn; column <= lastColumn; column++) {
+                    int cell = row * mColumnCount + column;
+                    cellPositions[cellStarts[cell] + cellFilled[cell]++] = i;
+                }
+            }
+        }
+        mCellStarts = cellStarts;
+        mCellPositions = cellPositions;
+    }
+
+    // Accessors for LayoutSnapshotFile, which persists the index as is.
+
+    int getOriginX() {
+        return mOriginX;
+    }
+
+    int getOriginY() {
+        return mOriginY;
+    }
+
+    int getCellWidth() {
+        return mCellWidth;
+    }
+
+    int getCellHeight() {
+        return mCellHeight;
+    }
+
+    int getColumnCount() {
+        return mColumnCount;
+    }
+
+    int getRowCount() {
+        return mRowCount;
+    }
+
+    /**
+     * @return Index in cell positions of first item in the cell, or total count of cell positions if cell is column count * row count.
+     */
+    int getCellStart(int cell) {
+        return mCellStarts[cell];
+    }
+
+    int getCellPosition(int index) {
+        return mCellPositions[index];
+    }
+
+    private int getColumnForX(int x) {
+        long column = ((long) x - mOriginX) / mCellWidth;
+        return (int) Math.max(0, Math.min(mColumnCount - 1, column));
+    }
+
+    private int getRowForY(int y) {
+        long row = ((long) y - mOriginY) / mCellHeight;
+        return (int) Math.max(0, Math.min(mRowCount - 1, row));
+    }
+}
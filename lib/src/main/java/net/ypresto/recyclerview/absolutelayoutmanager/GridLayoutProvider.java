@@ -0,0 +1,237 @@
+/*
+ * Copyright (C) 2015 Yuya Tanaka
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ypresto.recyclerview.absolutelayoutmanager;
+
+import android.graphics.Rect;
+
+import java.util.List;
+
+/**
+ * Grid of spans laid out in adapter order, calculated arithmetically from row and span index.
+ * Memory and {@link #prepareLayout()} cost depend only on span count, and rect query visits only
+ * cells in the rect, so it can handle grids of millions of items.
+ * <p>
+ * Spans divide the cross axis (width for {@link #VERTICAL}) equally or by weights, using {@link SpanCalculator}
+ * for equal spans. Items in a row have same length along scroll axis, which defaults to the average span length.
+ */
+public class GridLayoutProvider extends AbsoluteLayoutManager.LayoutProvider {
+    public static final int VERTICAL = 0;
+    public static final int HORIZONTAL = 1;
+
+    private final int mSpanCount;
+    private final float[] mSpanWeights;
+    private final int mOrientation;
+    private int mInterItemSpacing;
+    private int mItemLength;
+
+    // Calculated in prepareLayout().
+    private final int[] mSpanStarts;
+    private final int[] mSpanEnds;
+    private int mRowLength;
+
+    /**
+     * @param spanCount   Number of equal spans in a row.
+     * @param orientation {@link #VERTICAL} or {@link #HORIZONTAL}.
+     */
+    public GridLayoutProvider(int spanCount, int orientation) {
+        this(spanCount, null, orientation);
+    }
+
+    /**
+     * @param spanWeights Relative length of each span in a row.
+     * @param orientation {@link #VERTICAL} or {@link #HORIZONTAL}.
+     */
+    public GridLayoutProvider(float[] spanWeights, int orientation) {
+        this(spanWeights.length, spanWeights.clone(), orientation);
+    }
+
+    private GridLayoutProvider(int spanCount, float[] spanWeights, int orientation) {
+        if (spanCount <= 0) {
+            throw new IllegalArgumentException("spanCount must be positive: " + spanCount);
+        }
+        if (orientation != VERTICAL && orientation != HORIZONTAL) {
+            throw new IllegalArgumentException("Invalid orientation: " + orientation);
+        }
+        if (spanWeights != null) {
+            for (float weight : spanWeights) {
+                if (!(weight > 0)) {
+                    throw new IllegalArgumentException("Span weights must be positive.");
+                }
+            }
+        }
+        mSpanCount = spanCount;
+        mSpanWeights = spanWeights;
+        mOrientation = orientation;
+        mSpanStarts = new int[spanCount];
+        mSpanEnds = new int[spanCount];
+    }
+
+    /**
+     * Set space between spans and between rows. Call {@link AbsoluteLayoutManager#invalidateLayout()} after changing it.
+     */
+    public void setInterItemSpacing(int interItemSpacing) {
+        mInterItemSpacing = interItemSpacing;
+    }
+
+    /**
+     * Set length of items along scroll axis, or 0 to use average length of spans (square cells for equal spans).
+     * Call {@link AbsoluteLayoutManager#invalidateLayout()} after changing it.
+     */
+    public void setItemLength(int itemLength) {
+        mItemLength = itemLength;
+    }
+
+    public int getSpanCount() {
+        return mSpanCount;
+    }
+
+    public int getOrientation() {
+        return mOrientation;
+    }
+
+    @Override
+    public void prepareLayout() {
+        int crossLength = getCrossLength();
+        if (mSpanWeights == null) {
+            SpanCalculator spanCalculator = new SpanCalculator(mInterItemSpacing);
+            for (int span = 0; span < mSpanCount; span++) {
+                mSpanStarts[span] = spanCalculator.calculateStartOffsetForSpan(span, mSpanCount, crossLength);
+                mSpanEnds[span] = spanCalculator.calculateEndOffsetForSpan(span, mSpanCount, crossLength);
+            }
+        } else {
+            float totalWeight = 0;
+            for (float weight : mSpanWeights) {
+                totalWeight += weight;
+            }
+            // Same rounding as SpanCalculator, on accumulated weights.
+            int contentLength = crossLength - mInterItemSpacing * (mSpanCount - 1);
+            float accumulatedWeight = 0;
+            for (int span = 0; span < mSpanCount; span++) {
+                mSpanStarts[span] = Math.round(contentLength * accumulatedWeight / totalWeight + span * mInterItemSpacing);
+                accumulatedWeight += mSpanWeights[span];
+                mSpanEnds[span] = Math.round(contentLength * accumulatedWeight / totalWeight + span * mInterItemSpacing);
+            }
+        }
+        if (mItemLength > 0) {
+            mRowLength = mItemLength;
+        } else {
+            mRowLength = Math.max(1, Math.round((float) (crossLength - mInterItemSpacing * (mSpanCount - 1)) / mSpanCount));
+        }
+    }
+
+    private int getCrossLength() {
+        return mOrientation == VERTICAL ? getState().getLayoutSpaceWidth() : getState().getLayoutSpaceHeight();
+    }
+
+    private int getRowCount() {
+        return (getState().getItemCount() + mSpanCount - 1) / mSpanCount;
+    }
+
+    private long getRowStart(int row) {
+        return (long) row * (mRowLength + mInterItemSpacing);
+    }
+
+    private int getMainLength() {
+        int rowCount = getRowCount();
+        if (rowCount == 0) return 0;
+        return (int) Math.min(Integer.MAX_VALUE, getRowStart(rowCount - 1) + mRowLength);
+    }
+
+    @Override
+    public int getScrollContentWidth() {
+        return mOrientation == VERTICAL ? getCrossLength() : getMainLength();
+    }
+
+    @Override
+    public int getScrollContentHeight() {
+        return mOrientation == VERTICAL ? getMainLength() : getCrossLength();
+    }
+
+    @Override
+    public List<LayoutAttribute> getLayoutAttributesInRect(Rect rect) {
+        return collectLayoutAttributesInRect(rect);
+    }
+
+    @Override
+    public void forEachLayoutAttributeInRect(Rect rect, LayoutAttributeVisitor visitor) {
+        int itemCount = getState().getItemCount();
+        if (itemCount == 0) return;
+        boolean isVertical = mOrientation == VERTICAL;
+        int mainStart = isVertical ? rect.top : rect.left;
+        int mainEnd = isVertical ? rect.bottom : rect.right;
+        int crossStart = isVertical ? rect.left : rect.top;
+        int crossEnd = isVertical ? rect.right : rect.bottom;
+        long rowPitch = mRowLength + mInterItemSpacing;
+        int firstRow = (int) Math.max(0, Math.min(getRowCount() - 1, mainStart / rowPitch));
+        int lastRow = (int) Math.max(0, Math.min(getRowCount() - 1, ((long) mainEnd - 1) / rowPitch));
+        int firstSpan = 0;
+        while (firstSpan < mSpanCount - 1 && mSpanEnds[firstSpan] <= crossStart) {
+            firstSpan++;
+        }
+        for (int row = firstRow; row <= lastRow; row++) {
+            int rowStart = (int) Math.min(Integer.MAX_VALUE, getRowStart(row));
+            int rowEnd = (int) Math.min(Integer.MAX_VALUE, getRowStart(row) + mRowLength);
+            for (int span = firstSpan; span < mSpanCount && mSpanStarts[span] < crossEnd; span++) {
+                int position = row * mSpanCount + span;
+                if (position >= itemCount) break;
+                if (isVertical) {
+                    if (rect.intersects(mSpanStarts[span], rowStart, mSpanEnds[span], rowEnd)) {
+                        visitor.visitLayoutAttribute(position, mSpanStarts[span], rowStart, mSpanEnds[span], rowEnd);
+                    }
+                } else {
+                    if (rect.intersects(rowStart, mSpanStarts[span], rowEnd, mSpanEnds[span])) {
+                        visitor.visitLayoutAttribute(position, rowStart, mSpanStarts[span], rowEnd, mSpanEnds[span]);
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public LayoutAttribute getLayoutAttributeForItemAtPosition(int position) {
+        int row = position / mSpanCount;
+        int span = position % mSpanCount;
+        int rowStart = (int) Math.min(Integer.MAX_VALUE, getRowStart(row));
+        int rowEnd = (int) Math.min(Integer.MAX_VALUE, getRowStart(row) + mRowLength);
+        Rect rect = mOrientation == VERTICAL
+                ? new Rect(mSpanStarts[span], rowStart, mSpanEnds[span], rowEnd)
+                : new Rect(rowStart, mSpanStarts[span], rowEnd, mSpanEnds[span]);
+        return new LayoutAttribute(position, rect);
+    }
+
+    /**
+     * Rects depend only on item count, so content changes never change layout.
+     */
+    @Override
+    public boolean isContentChangeGeometryStable(int positionStart, int itemCount) {
+        return true;
+    }
+
+    @Override
+    public boolean onItemsInserted(int positionStart, int itemCount) {
+        return true;
+    }
+
+    @Override
+    public boolean onItemsRemoved(int positionStart, int itemCount) {
+        return true;
+    }
+
+    @Override
+    public boolean onItemsMoved(int fromPosition, int toPosition, int itemCount) {
+        return true;
+    }
+}
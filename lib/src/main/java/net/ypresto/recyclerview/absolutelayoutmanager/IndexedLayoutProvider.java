@@ -0,0 +1,271 @@
+/*
+ * Copyright (C) 2015 Yuya Tanaka
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ypresto.recyclerview.absolutelayoutmanager;
+
+import android.graphics.Rect;
+import android.util.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * {@link AbsoluteLayoutManager.LayoutProvider} which answers rect queries from a uniform grid index.
+ * Subclasses only supply rect of each item by {@link #getItemRect(int, Rect)}, and the index is
+ * built once in {@link #prepareLayout()}. Query cost is proportional to number of cells and items
+ * in the rect, instead of whole item count. Rects are kept in {@link PackedLayoutAttributes}.
+ * <p>
+ * With {@link #setLayoutSnapshotFile(File, Executor)}, layout is written to the file in background, and served
+ * directly from memory-mapped file on later {@link #prepareLayout()} (e.g. after process restart) if it matches.
+ */
+public abstract class IndexedLayoutProvider extends AbsoluteLayoutManager.LayoutProvider implements AbsoluteLayoutManager.LayoutProvider.CacheableLayout {
+    private static final String TAG = "IndexedLayoutProvider";
+
+    private File mLayoutSnapshotFile;
+    private Executor mLayoutSnapshotFileExecutor;
+    // Only the latest map or write is done, and they are not run concurrently.
+    private final Object mLayoutSnapshotFileLock = new Object();
+    private volatile int mLayoutSnapshotFileGeneration;
+    // Mapped on executor by setLayoutSnapshotFile(), and used by prepareLayout() if it matches.
+    private volatile LayoutSnapshotFile mMappableSnapshot;
+    // Non-null if current layout is served from mapped file, instead of mAttributes and mIndex.
+    private LayoutSnapshotFile mMappedSnapshot;
+    private PackedLayoutAttributes mAttributes = new PackedLayoutAttributes();
+    private int mContentWidth;
+    private int mContentHeight;
+
+    private GridIndex mIndex = new GridIndex(mAttributes);
+
+    /**
+     * Called before collecting item rects. Calculate anything {@link #getItemRect(int, Rect)} depends on here.
+     */
+    protected void onPrepareLayout() {
+    }
+
+    /**
+     * Write absolute rect of item at position. Called once for each item in {@link #prepareLayout()}.
+     *
+     * @param position Adapter position of item.
+     * @param outRect  Rect to write result. Its previous value is undefined.
+     */
+    protected abstract void getItemRect(int position, Rect outRect);
+
+    /**
+     * Persist layout to the file, and reuse it on {@link #prepareLayout()} if it is written for same
+     * {@link #getState()} and {@link #getDataVersion()}, without calling {@link #getItemRect(int, Rect)}.
+     * Only used if {@link #getDataVersion()} is overridden, as data cannot be compared otherwise.
+     * File is mapped and loaded on the executor, so set it early (e.g. before setting adapter).
+     * Layouts prepared before it is loaded are calculated as usual.
+     *
+     * @param file     File to write layout, e.g. under {@link android.content.Context#getCacheDir()}. {@code null} to disable.
+     * @param executor Executor to map file on, and to write file on after each {@code prepareLayout()},
+     *                 e.g. {@link android.os.AsyncTask#THREAD_POOL_EXECUTOR}.
+     */
+    public void setLayoutSnapshotFile(final File file, Executor executor) {
+        if (file != null && executor == null) {
+            throw new IllegalArgumentException("executor must not be null.");
+        }
+        mLayoutSnapshotFile = file;
+        mLayoutSnapshotFileExecutor = executor;
+        mMappableSnapshot = null;
+        final int generation = ++mLayoutSnapshotFileGeneration;
+        if (file == null) {
+            return;
+        }
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                synchronized (mLayoutSnapshotFileLock) {
+                    if (generation != mLayoutSnapshotFileGeneration || !file.exists()) return;
+                    try {
+                        LayoutSnapshotFile snapshot = LayoutSnapshotFile.map(file);
+                        snapshot.load();
+                        mMappableSnapshot = snapshot;
+                    } catch (IOException e) {
+                        Log.w(TAG, "Could not map layout snapshot file: " + file, e);
+                    }
+                }
+            }
+        });
+    }
+
+    @Override
+    public final void prepareLayout() {
+        onPrepareLayout();
+        if (useMappedLayoutSnapshotFile()) {
+            return;
+        }
+        int itemCount = getState().getItemCount();
+        // Allocated for each layout, as previous one may be kept by saveLayout().
+        PackedLayoutAttributes attributes = new PackedLayoutAttributes(itemCount);
+        attributes.setSize(itemCount);
+        Rect rect = new Rect();
+        int contentWidth = 0;
+        int contentHeight = 0;
+        for (int i = 0; i < itemCount; i++) {
+            getItemRect(i, rect);
+            attributes.set(i, rect);
+            contentWidth = Math.max(contentWidth, rect.right);
+            contentHeight = Math.max(contentHeight, rect.bottom);
+        }
+        mMappedSnapshot = null;
+        mAttributes = attributes;
+        mContentWidth = contentWidth;
+        mContentHeight = contentHeight;
+        mIndex = new GridIndex(attributes);
+        writeLayoutSnapshotFile();
+    }
+
+    /**
+     * Use layout snapshot file mapped on executor, if it is ready and written for current state. Never blocks.
+     */
+    private boolean useMappedLayoutSnapshotFile() {
+        LayoutSnapshotFile snapshot = mMappableSnapshot;
+        if (snapshot == null || mLayoutSnapshotFile == null || getDataVersion() == NO_DATA_VERSION
+                || !snapshot.isFor(getState(), getDataVersion())) {
+            return false;
+        }
+        mMappedSnapshot = snapshot;
+        mAttributes = null;
+        mIndex = null;
+        mContentWidth = snapshot.getScrollContentWidth();
+        mContentHeight = snapshot.getScrollContentHeight();
+        return true;
+    }
+
+    /**
+     * Write current layout on the executor. Attributes are copied, as subclasses may modify them in
+     * incremental update hooks while writing. Index is not modified after built.
+     */
+    private void writeLayoutSnapshotFile() {
+        if (mLayoutSnapshotFile == null || getDataVersion() == NO_DATA_VERSION) {
+            return;
+        }
+        final File file = mLayoutSnapshotFile;
+        final LayoutManagerState state = getState();
+        final long dataVersion = getDataVersion();
+        final int contentWidth = mContentWidth;
+        final int contentHeight = mContentHeight;
+        final PackedLayoutAttributes attributes = mAttributes.copy();
+        final GridIndex index = mIndex;
+        // Mapped snapshot is replaced by this layout.
+        mMappableSnapshot = null;
+        final int generation = ++mLayoutSnapshotFileGeneration;
+        mLayoutSnapshotFileExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                synchronized (mLayoutSnapshotFileLock) {
+                    if (generation != mLayoutSnapshotFileGeneration) return; // newer layout is written instead
+                    try {
+                        LayoutSnapshotFile.write(file, state, dataVersion, contentWidth, contentHeight, attributes, index);
+                    } catch (IOException e) {
+                        Log.w(TAG, "Could not write layout snapshot file: " + file, e);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Subclasses which modify {@link #getPackedLayoutAttributes()} in incremental update hooks must
+     * return {@code null} or change data version, as the attributes are shared with cached layout.
+     */
+    @Override
+    public Object saveLayout() {
+        return new SavedLayout(mMappedSnapshot, mAttributes, mIndex, mContentWidth, mContentHeight);
+    }
+
+    @Override
+    public void restoreLayout(Object layout) {
+        SavedLayout savedLayout = (SavedLayout) layout;
+        mMappedSnapshot = savedLayout.mMappedSnapshot;
+        mAttributes = savedLayout.mAttributes;
+        mIndex = savedLayout.mIndex;
+        mContentWidth = savedLayout.mContentWidth;
+        mContentHeight = savedLayout.mContentHeight;
+    }
+
+    /**
+     * @return Right edge of rightmost item. Override to add trailing space.
+     */
+    @Override
+    public int getScrollContentWidth() {
+        return mContentWidth;
+    }
+
+    /**
+     * @return Bottom edge of bottommost item. Override to add trailing space.
+     */
+    @Override
+    public int getScrollContentHeight() {
+        return mContentHeight;
+    }
+
+    /**
+     * @return Rects of all items, or {@code null} while layout is served from layout snapshot file.
+     */
+    @Override
+    public PackedLayoutAttributes getPackedLayoutAttributes() {
+        return mAttributes;
+    }
+
+    @Override
+    public List<LayoutAttribute> getLayoutAttributesInRect(Rect rect) {
+        return collectLayoutAttributesInRect(rect);
+    }
+
+    @Override
+    public void forEachLayoutAttributeInRect(Rect rect, LayoutAttributeVisitor visitor) {
+        if (mMappedSnapshot != null) {
+            mMappedSnapshot.forEachLayoutAttributeInRect(rect, visitor);
+            return;
+        }
+        mIndex.forEachLayoutAttributeInRect(rect, visitor);
+    }
+
+    @Override
+    public int findItemWithNearestCornerInRect(Rect rect, int x, int y) {
+        if (mMappedSnapshot != null) {
+            return super.findItemWithNearestCornerInRect(rect, x, y);
+        }
+        return mIndex.findItemWithNearestCornerInRect(rect, x, y);
+    }
+
+    @Override
+    public LayoutAttribute getLayoutAttributeForItemAtPosition(int position) {
+        if (mMappedSnapshot != null) {
+            return mMappedSnapshot.createLayoutAttribute(position);
+        }
+        return mAttributes.createLayoutAttribute(position);
+    }
+
+    private static class SavedLayout {
+        private final LayoutSnapshotFile mMappedSnapshot;
+        private final PackedLayoutAttributes mAttributes;
+        private final GridIndex mIndex;
+        private final int mContentWidth;
+        private final int mContentHeight;
+
+        SavedLayout(LayoutSnapshotFile mappedSnapshot, PackedLayoutAttributes attributes, GridIndex index, int contentWidth, int contentHeight) {
+            mMappedSnapshot = mappedSnapshot;
+            mAttributes = attributes;
+            mIndex = index;
+            mContentWidth = contentWidth;
+            mContentHeight = contentHeight;
+        }
+    }
+}
@@ -0,0 +1,373 @@
+/*
+ * Copyright (C) 2015 Yuya Tanaka
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ypresto.recyclerview.absolutelayoutmanager;
+
+import android.graphics.Rect;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Vertical photo gallery layout which packs items into rows and scales each row to fill the layout width,
+ * keeping aspect ratio of items. Last row is not stretched beyond target row height.
+ * <p>
+ * Rows are broken greedily, or by minimizing squared difference of row heights from target
+ * ({@link #LINE_BREAK_OPTIMAL}). Appended or changed items re-break only rows from the one containing
+ * the first changed item, and row query is binary search on row tops.
+ */
+public abstract class JustifiedRowLayoutProvider extends AbsoluteLayoutManager.LayoutProvider {
+    /**
+     * Fill a row until it reaches layout width at target row height.
+     */
+    public static final int LINE_BREAK_GREEDY = 0;
+    /**
+     * Choose row breaks minimizing total squared difference of row heights from target.
+     */
+    public static final int LINE_BREAK_OPTIMAL = 1;
+
+    // Rows shorter than this fraction of target height are not considered by optimal line breaking.
+    private static final float MINIMUM_ROW_HEIGHT_RATIO = 0.5f;
+
+    private final int mTargetRowHeight;
+    private final int mLineBreaking;
+    private int mInterItemSpacing;
+
+    private int mLayoutWidth;
+    private int mItemCount;
+    private float[] mAspectRatios = new float[0];
+    private int[] mLefts = new int[0];
+    private int[] mRights = new int[0];
+    // For optimal line breaking: least cost of breaking items [0, i) into rows, and start of last row of it.
+    private double[] mBestCosts = new double[1];
+    private int[] mBestRowStarts = new int[1];
+
+    private int mRowCount;
+    private int[] mRowStarts = new int[0];
+    private int[] mRowTops = new int[0];
+    private int[] mRowHeights = new int[0];
+
+    /**
+     * @param targetRowHeight Preferred height of rows.
+     * @param lineBreaking    {@link #LINE_BREAK_GREEDY} or {@link #LINE_BREAK_OPTIMAL}.
+     */
+    public JustifiedRowLayoutProvider(int targetRowHeight, int lineBreaking) {
+        if (targetRowHeight <= 0) {
+            throw new IllegalArgumentException("targetRowHeight must be positive: " + targetRowHeight);
+        }
+        if (lineBreaking != LINE_BREAK_GREEDY && lineBreaking != LINE_BREAK_OPTIMAL) {
+            throw new IllegalArgumentException("Invalid lineBreaking: " + lineBreaking);
+        }
+        mTargetRowHeight = targetRowHeight;
+        mLineBreaking = lineBreaking;
+    }
+
+    /**
+     * Write aspect ratio (width / height) of items in [positionStart, positionStart + itemCount)
+     * to outAspectRatios, indexed by adapter position. Non-positive ratio is treated as 1.
+     */
+    protected abstract void getAspectRatios(int positionStart, int itemCount, float[] outAspectRatios);
+
+    /**
+     * Set space between items in a row and between rows. Call {@link AbsoluteLayoutManager#invalidateLayout()} after changing it.
+     */
+    public void setInterItemSpacing(int interItemSpacing) {
+        mInterItemSpacing = interItemSpacing;
+    }
+
+    @Override
+    public void prepareLayout() {
+        mLayoutWidth = getState().getLayoutSpaceWidth();
+        mItemCount = getState().getItemCount();
+        mRowCount = 0;
+        ensureItemCapacity(mItemCount);
+        loadAspectRatios(0, mItemCount);
+        relayout(0, mItemCount);
+    }
+
+    /**
+     * Re-breaks rows from the last one for appended items. Insertion into middle needs whole layout.
+     */
+    @Override
+    public boolean onItemsInserted(int positionStart, int itemCount) {
+        if (positionStart != mItemCount || getState().getItemCount() != mItemCount + itemCount) {
+            return false;
+        }
+        mItemCount += itemCount;
+        ensureItemCapacity(mItemCount);
+        loadAspectRatios(positionStart, itemCount);
+        relayout(positionStart, mItemCount);
+        return true;
+    }
+
+    @Override
+    public boolean onItemsChanged(int positionStart, int itemCount) {
+        if (getState().getItemCount() != mItemCount) return false;
+        loadAspectRatios(positionStart, itemCount);
+        relayout(positionStart, positionStart + itemCount);
+        return true;
+    }
+
+    private void ensureItemCapacity(int itemCount) {
+        if (mAspectRatios.length >= itemCount) return;
+        int capacity = Math.max(itemCount, mAspectRatios.length * 3 / 2);
+        mAspectRatios = Arrays.copyOf(mAspectRatios, capacity);
+        mLefts = Arrays.copyOf(mLefts, capacity);
+        mRights = Arrays.copyOf(mRights, capacity);
+        mBestCosts = Arrays.copyOf(mBestCosts, capacity + 1);
+        mBestRowStarts = Arrays.copyOf(mBestRowStarts, capacity + 1);
+    }
+
+    private void loadAspectRatios(int positionStart, int itemCount) {
+        getAspectRatios(positionStart, itemCount, mAspectRatios);
+        for (int i = positionStart; i < positionStart + itemCount; i++) {
+            if (!(mAspectRatios[i] > 0)) {
+                mAspectRatios[i] = 1;
+            }
+        }
+    }
+
+    /**
+     * Re-break rows affected by change of items in [changedStart, changedEnd), keeping other rows.
+     */
+    private void relayout(int changedStart, int changedEnd) {
+        int firstRow = mRowCount == 0 ? 0 : findRowOfPosition(changedStart);
+        int[] newRowStarts = new int[16];
+        int newRowCount = 0;
+        int keptRowStart = mRowCount;
+        if (mLineBreaking == LINE_BREAK_GREEDY) {
+            // Greedy row depends only on following items, so old rows are reused from the first
+            // unchanged row start. Appended items never match as they are after all old rows.
+            int start = firstRow < mRowCount ? mRowStarts[firstRow] : 0;
+            while (start < mItemCount) {
+                if (start >= changedEnd) {
+                    int row = findRowStartingAt(start, firstRow);
+                    if (row != -1) {
+                        keptRowStart = row;
+                        break;
+                    }
+                }
+                if (newRowCount == newRowStarts.length) {
+                    newRowStarts = Arrays.copyOf(newRowStarts, newRowCount * 2);
+                }
+                newRowStarts[newRowCount++] = start;
+                start = findGreedyRowEnd(start);
+            }
+        } else {
+            for (int end = Math.max(1, changedStart); end <= mItemCount; end++) {
+                calculateBestRowStart(end);
+            }
+            // Least cost of items before changedStart is not changed, so once the chain reaches
+            // an old row start there, rows before it are same as old ones.
+            firstRow = 0;
+            for (int end = mItemCount; end > 0; ) {
+                int start = mBestRowStarts[end];
+                if (newRowCount == newRowStarts.length) {
+                    newRowStarts = Arrays.copyOf(newRowStarts, newRowCount * 2);
+                }
+                newRowStarts[newRowCount++] = start;
+                if (start <= changedStart) {
+                    int row = findRowStartingAt(start, 0);
+                    if (row != -1) {
+                        firstRow = row;
+                        break;
+                    }
+                }
+                end = start;
+            }
+            for (int i = 0, j = newRowCount - 1; i < j; i++, j--) {
+                int tmp = newRowStarts[i];
+                newRowStarts[i] = newRowStarts[j];
+                newRowStarts[j] = tmp;
+            }
+        }
+        replaceRows(firstRow, newRowStarts, newRowCount, keptRowStart);
+    }
+
+    /**
+     * Replace old rows in [firstRow, keptRowStart) with new rows, shifting following old rows.
+     */
+    private void replaceRows(int firstRow, int[] newRowStarts, int newRowCount, int keptRowStart) {
+        int keptRowCount = mRowCount - keptRowStart;
+        int rowCount = firstRow + newRowCount + keptRowCount;
+        int[] rowStarts = Arrays.copyOf(mRowStarts, rowCount);
+        int[] rowTops = Arrays.copyOf(mRowTops, rowCount);
+        int[] rowHeights = Arrays.copyOf(mRowHeights, rowCount);
+        int top = firstRow == 0 ? 0 : mRowTops[firstRow - 1] + mRowHeights[firstRow - 1] + mInterItemSpacing;
+        for (int i = 0; i < newRowCount; i++) {
+            int row = firstRow + i;
+            int start = newRowStarts[i];
+            int end = i + 1 < newRowCount ? newRowStarts[i + 1] : keptRowCount > 0 ? mRowStarts[keptRowStart] : mItemCount;
+            rowStarts[row] = start;
+            rowTops[row] = top;
+            rowHeights[row] = layoutRow(start, end);
+            top += rowHeights[row] + mInterItemSpacing;
+        }
+        if (keptRowCount > 0) {
+            int delta = top - mRowTops[keptRowStart];
+            for (int i = 0; i < keptRowCount; i++) {
+                int row = firstRow + newRowCount + i;
+                rowStarts[row] = mRowStarts[keptRowStart + i];
+                rowTops[row] = mRowTops[keptRowStart + i] + delta;
+                rowHeights[row] = mRowHeights[keptRowStart + i];
+            }
+        }
+        mRowStarts = rowStarts;
+        mRowTops = rowTops;
+        mRowHeights = rowHeights;
+        mRowCount = rowCount;
+    }
+
+    private float calculateRowHeight(float aspectRatioSum, int itemCount) {
+        return (mLayoutWidth - mInterItemSpacing * (itemCount - 1)) / aspectRatioSum;
+    }
+
+    private int findGreedyRowEnd(int start) {
+        float aspectRatioSum = 0;
+        for (int i = start; i < mItemCount; i++) {
+            aspectRatioSum += mAspectRatios[i];
+            if (calculateRowHeight(aspectRatioSum, i - start + 1) <= mTargetRowHeight) {
+                return i + 1;
+            }
+        }
+        return mItemCount;
+    }
+
+    private void calculateBestRowStart(int end) {
+        double bestCost = Double.MAX_VALUE;
+        int bestStart = end - 1;
+        float aspectRatioSum = 0;
+        for (int start = end - 1; start >= 0; start--) {
+            aspectRatioSum += mAspectRatios[start];
+            int itemCount = end - start;
+            float height = calculateRowHeight(aspectRatioSum, itemCount);
+            if (itemCount > 1 && height < mTargetRowHeight * MINIMUM_ROW_HEIGHT_RATIO) break;
+            double cost = 0;
+            if (end != mItemCount || height <= mTargetRowHeight) {
+                double difference = (height - mTargetRowHeight) / mTargetRowHeight;
+                cost = difference * difference;
+            }
+            cost += mBestCosts[start];
+            if (cost < bestCost) {
+                bestCost = cost;
+                bestStart = start;
+            }
+        }
+        mBestCosts[end] = bestCost;
+        mBestRowStarts[end] = bestStart;
+    }
+
+    /**
+     * Calculate horizontal position of items in a row.
+     *
+     * @return Height of the row.
+     */
+    private int layoutRow(int start, int end) {
+        float aspectRatioSum = 0;
+        for (int i = start; i < end; i++) {
+            aspectRatioSum += mAspectRatios[i];
+        }
+        float height = calculateRowHeight(aspectRatioSum, end - start);
+        boolean isJustified = height <= mTargetRowHeight || end != mItemCount;
+        if (!isJustified) {
+            height = mTargetRowHeight;
+        }
+        // Same rounding as SpanCalculator, so that spacing is always same.
+        float accumulatedAspectRatio = 0;
+        for (int i = start; i < end; i++) {
+            int spacing = (i - start) * mInterItemSpacing;
+            mLefts[i] = Math.round(accumulatedAspectRatio * height) + spacing;
+            accumulatedAspectRatio += mAspectRatios[i];
+            mRights[i] = Math.round(accumulatedAspectRatio * height) + spacing;
+        }
+        if (isJustified && end > start) {
+            mRights[end - 1] = mLayoutWidth;
+        }
+        return Math.round(height);
+    }
+
+    /**
+     * @return Index of last row whose start is &lt;= position.
+     */
+    private int findRowOfPosition(int position) {
+        int low = 0;
+        int high = mRowCount - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (mRowStarts[mid] <= position) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @return Index of old row starting at position, or -1.
+     */
+    private int findRowStartingAt(int position, int fromRow) {
+        int index = Arrays.binarySearch(mRowStarts, fromRow, mRowCount, position);
+        return index >= 0 ? index : -1;
+    }
+
+    @Override
+    public int getScrollContentWidth() {
+        return getState().getLayoutSpaceWidth();
+    }
+
+    @Override
+    public int getScrollContentHeight() {
+        if (mRowCount == 0) return 0;
+        return mRowTops[mRowCount - 1] + mRowHeights[mRowCount - 1];
+    }
+
+    @Override
+    public List<LayoutAttribute> getLayoutAttributesInRect(Rect rect) {
+        return collectLayoutAttributesInRect(rect);
+    }
+
+    @Override
+    public void forEachLayoutAttributeInRect(Rect rect, LayoutAttributeVisitor visitor) {
+        // Row bottoms are increasing, so find first row ending after top of rect.
+        int low = 0;
+        int high = mRowCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (mRowTops[mid] + mRowHeights[mid] <= rect.top) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        for (int row = low; row < mRowCount && mRowTops[row] < rect.bottom; row++) {
+            int top = mRowTops[row];
+            int bottom = top + mRowHeights[row];
+            int end = row + 1 < mRowCount ? mRowStarts[row + 1] : mItemCount;
+            for (int i = mRowStarts[row]; i < end; i++) {
+                if (rect.intersects(mLefts[i], top, mRights[i], bottom)) {
+                    visitor.visitLayoutAttribute(i, mLefts[i], top, mRights[i], bottom);
+                }
+            }
+        }
+    }
+
+    @Override
+    public LayoutAttribute getLayoutAttributeForItemAtPosition(int position) {
+        int row = findRowOfPosition(position);
+        int top = mRowTops[row];
+        return new LayoutAttribute(position, new Rect(mLefts[position], top, mRights[position], top + mRowHeights[row]));
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2015 Yuya Tanaka
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ypresto.recyclerview.absolutelayoutmanager;
+
+import net.ypresto.recyclerview.absolutelayoutmanager.AbsoluteLayoutManager.LayoutProvider.LayoutManagerState;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * Bounded LRU cache of layouts saved by {@link AbsoluteLayoutManager.LayoutProvider.CacheableLayout#saveLayout()},
+ * keyed by layout manager state and data version.
+ */
+class LayoutCache {
+    private final LinkedHashMap<Key, Object> mEntries = new LinkedHashMap<>(4, 0.75f, true);
+    private int mMaximumSize;
+
+    LayoutCache(int maximumSize) {
+        mMaximumSize = maximumSize;
+    }
+
+    int getMaximumSize() {
+        return mMaximumSize;
+    }
+
+    void setMaximumSize(int maximumSize) {
+        if (maximumSize < 0) {
+            throw new IllegalArgumentException("maximumSize must not be negative: " + maximumSize);
+        }
+        mMaximumSize = maximumSize;
+        trimToSize();
+    }
+
+    Object get(LayoutManagerState state, long dataVersion) {
+        return mEntries.get(new Key(state, dataVersion));
+    }
+
+    void put(LayoutManagerState state, long dataVersion, Object layout) {
+        if (mMaximumSize == 0 || layout == null) return;
+        mEntries.put(new Key(state, dataVersion), layout);
+        trimToSize();
+    }
+
+    void clear() {
+        mEntries.clear();
+    }
+
+    private void trimToSize() {
+        Iterator<Key> iterator = mEntries.keySet().iterator();
+        while (mEntries.size() > mMaximumSize && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    private static class Key {
+        private final LayoutManagerState mState;
+        private final long mDataVersion;
+
+        Key(LayoutManagerState state, long dataVersion) {
+            mState = state;
+            mDataVersion = dataVersion;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return mDataVersion == key.mDataVersion && mState.equals(key.mState);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * mState.hashCode() + (int) (mDataVersion ^ (mDataVersion >>> 32));
+        }
+    }
+}
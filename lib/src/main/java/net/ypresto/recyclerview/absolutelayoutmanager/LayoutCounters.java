@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2015 Yuya Tanaka
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ypresto.recyclerview.absolutelayoutmanager;
+
+/**
+ * Cumulative counts of work done by {@link AbsoluteLayoutManager}, to measure cost of scroll and layout.
+ * Sample and {@link #reset()} it per frame (e.g. from {@code Choreographer.FrameCallback}) to get per-frame counts.
+ */
+public final class LayoutCounters {
+    int mPrepareLayoutCount;
+    int mFullFillCount;
+    int mIncrementalFillCount;
+    int mQueriedAttributeCount;
+    int mAddedViewCount;
+    int mKeptViewCount;
+    int mRecycledViewCount;
+    int mScrappedViewCount;
+    int mMeasureCount;
+    int mSkippedMeasureCount;
+
+    LayoutCounters() {
+    }
+
+    /**
+     * @return Number of {@link AbsoluteLayoutManager.LayoutProvider#prepareLayout()} calls, including async ones.
+     */
+    public int getPrepareLayoutCount() {
+        return mPrepareLayoutCount;
+    }
+
+    /**
+     * @return Number of fills which queried whole fill rect, e.g. on layout or scroll jump.
+     */
+    public int getFullFillCount() {
+        return mFullFillCount;
+    }
+
+    /**
+     * @return Number of fills which queried only region not filled yet.
+     */
+    public int getIncrementalFillCount() {
+        return mIncrementalFillCount;
+    }
+
+    /**
+     * @return Number of layout attributes returned by rect queries for filling views.
+     */
+    public int getQueriedAttributeCount() {
+        return mQueriedAttributeCount;
+    }
+
+    /**
+     * @return Number of views obtained from recycler and added, either created, rebound or returned from scrap.
+     */
+    public int getAddedViewCount() {
+        return mAddedViewCount;
+    }
+
+    /**
+     * @return Number of attached views kept as is or moved by full fill, instead of being rebound.
+     */
+    public int getKeptViewCount() {
+        return mKeptViewCount;
+    }
+
+    public int getRecycledViewCount() {
+        return mRecycledViewCount;
+    }
+
+    public int getScrappedViewCount() {
+        return mScrappedViewCount;
+    }
+
+    public int getMeasureCount() {
+        return mMeasureCount;
+    }
+
+    /**
+     * @return Number of measures skipped because view was already measured in same size.
+     */
+    public int getSkippedMeasureCount() {
+        return mSkippedMeasureCount;
+    }
+
+    public void reset() {
+        mPrepareLayoutCount = 0;
+        mFullFillCount = 0;
+        mIncrementalFillCount = 0;
+        mQueriedAttributeCount = 0;
+        mAddedViewCount = 0;
+        mKeptViewCount = 0;
+        mRecycledViewCount = 0;
+        mScrappedViewCount = 0;
+        mMeasureCount = 0;
+        mSkippedMeasureCount = 0;
+    }
+
+    @Override
+    public String toString() {
+        return "LayoutCounters{"
+                + "prepareLayout=" + mPrepareLayoutCount
+                + ", fullFill=" + mFullFillCount
+                + ", incrementalFill=" + mIncrementalFillCount
+                + ", queriedAttributes=" + mQueriedAttributeCount
+                + ", added=" + mAddedViewCount
+                + ", kept=" + mKeptViewCount
+                + ", recycled=" + mRecycledViewCount
+                + ", scrapped=" + mScrappedViewCount
+                + ", measured=" + mMeasureCount
+                + ", skippedMeasure=" + mSkippedMeasureCount
+                + "}";
+    }
+}
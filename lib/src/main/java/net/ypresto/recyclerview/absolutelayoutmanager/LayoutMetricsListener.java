@@ -0,0 +1,57 @@
+/*
+ * Copyright (C) 2015 Yuya Tanaka
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ypresto.recyclerview.absolutelayoutmanager;
+
+/**
+ * Receives durations and work counts of layout phases of {@link AbsoluteLayoutManager}.
+ * Set by {@link AbsoluteLayoutManager#setLayoutMetricsListener(LayoutMetricsListener)}.
+ * Called on main thread, synchronously in layout or scroll, so implementations should only record values.
+ * Phases are also traced as {@link android.os.Trace} sections regardless of listener.
+ */
+public abstract class LayoutMetricsListener {
+    /**
+     * Called after {@link AbsoluteLayoutManager.LayoutProvider#prepareLayout()} is done.
+     *
+     * @param durationNanos Time spent to prepare layout. For async layout, measured on the executor.
+     * @param isAsync       {@code true} if layout is prepared on executor.
+     * @param itemCount     Item count of the layout.
+     */
+    public void onPrepareLayout(long durationNanos, boolean isAsync, int itemCount) {
+    }
+
+    /**
+     * Called after views are filled around visible rect, by scroll or layout.
+     *
+     * @param durationNanos         Time spent to fill, including lazy layout of the region.
+     * @param isIncremental         {@code true} if only region not filled yet is queried.
+     * @param queriedAttributeCount Number of layout attributes returned by rect queries.
+     * @param addedViewCount        Number of views added.
+     * @param recycledViewCount     Number of views recycled.
+     * @param measureCount          Number of views measured.
+     */
+    public void onFill(long durationNanos, boolean isIncremental, int queriedAttributeCount,
+                       int addedViewCount, int recycledViewCount, int measureCount) {
+    }
+
+    /**
+     * Called after {@link AbsoluteLayoutManager#onLayoutChildren} is done.
+     *
+     * @param durationNanos Time spent, including prepareLayout and fill.
+     * @param isPreLayout   {@code true} if it is pre-layout pass for predictive animations.
+     */
+    public void onLayoutChildren(long durationNanos, boolean isPreLayout) {
+    }
+}
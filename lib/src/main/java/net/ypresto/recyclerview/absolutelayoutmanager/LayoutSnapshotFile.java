@@ -0,0 +1,257 @@
+/*
+ * Copyright (C) 2015 Yuya Tanaka
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ypresto.recyclerview.absolutelayoutmanager;
+
+import android.graphics.Rect;
+
+import net.ypresto.recyclerview.absolutelayoutmanager.AbsoluteLayoutManager.LayoutProvider.LayoutAttribute;
+import net.ypresto.recyclerview.absolutelayoutmanager.AbsoluteLayoutManager.LayoutProvider.LayoutAttributeVisitor;
+import net.ypresto.recyclerview.absolutelayoutmanager.AbsoluteLayoutManager.LayoutProvider.LayoutManagerState;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Compact binary file of prepared layout, which is memory-mapped and queried without loading
+ * or recalculating, e.g. on cold start with unchanged data.
+ * <p>
+ * Format (big endian): header of magic, format version, {@link LayoutManagerState}, data version,
+ * content size and parameters of uniform grid index, followed by (left, top, right, bottom) records
+ * of each position, and cells of the grid index (same as {@link GridIndex}). Rect query reads only
+ * cells and items in the rect, in both axes.
+ */
+public final class LayoutSnapshotFile {
+    private static final int MAGIC = 0x414c4d53; // "ALMS"
+    private static final int FORMAT_VERSION = 2;
+    private static final int HEADER_SIZE = 60;
+    private static final int RECORD_SIZE = 16;
+
+    private final MappedByteBuffer mBuffer;
+    private final int mLayoutSpaceWidth;
+    private final int mLayoutSpaceHeight;
+    private final int mItemCount;
+    private final long mDataVersion;
+    private final int mScrollContentWidth;
+    private final int mScrollContentHeight;
+    private final int mOriginX;
+    private final int mOriginY;
+    private final int mCellWidth;
+    private final int mCellHeight;
+    private final int mColumnCount;
+    private final int mRowCount;
+    private final int mCellStartsOffset;
+    private final int mCellPositionsOffset;
+
+    private LayoutSnapshotFile(MappedByteBuffer buffer) throws IOException {
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != FORMAT_VERSION) {
+            throw new IOException("Not a layout snapshot file.");
+        }
+        mBuffer = buffer;
+        mLayoutSpaceWidth = buffer.getInt(8);
+        mLayoutSpaceHeight = buffer.getInt(12);
+        mItemCount = buffer.getInt(16);
+        mDataVersion = buffer.getLong(20);
+        mScrollContentWidth = buffer.getInt(28);
+        mScrollContentHeight = buffer.getInt(32);
+        mOriginX = buffer.getInt(36);
+        mOriginY = buffer.getInt(40);
+        mCellWidth = buffer.getInt(44);
+        mCellHeight = buffer.getInt(48);
+        mColumnCount = buffer.getInt(52);
+        mRowCount = buffer.getInt(56);
+        if (mItemCount < 0 || mCellWidth <= 0 || mCellHeight <= 0 || mColumnCount <= 0 || mRowCount <= 0) {
+            throw new IOException("Corrupted layout snapshot file.");
+        }
+        long cellStartsOffset = HEADER_SIZE + (long) mItemCount * RECORD_SIZE;
+        long cellPositionsOffset = cellStartsOffset + ((long) mColumnCount * mRowCount + 1) * 4;
+        if (buffer.capacity() < cellPositionsOffset) {
+            throw new IOException("Truncated layout snapshot file.");
+        }
+        mCellStartsOffset = (int) cellStartsOffset;
+        mCellPositionsOffset = (int) cellPositionsOffset;
+        int cellPositionCount = getCellStart(mColumnCount * mRowCount);
+        if (buffer.capacity() != cellPositionsOffset + cellPositionCount * 4L) {
+            throw new IOException("Truncated layout snapshot file.");
+        }
+    }
+
+    /**
+     * Write layout to file. File is replaced atomically, so it can be mapped concurrently.
+     */
+    public static void write(File file, LayoutManagerState state, long dataVersion,
+                             int scrollContentWidth, int scrollContentHeight, PackedLayoutAttributes attributes) throws IOException {
+        write(file, state, dataVersion, scrollContentWidth, scrollContentHeight, attributes, new GridIndex(attributes));
+    }
+
+    /**
+     * Write layout with grid index already built for attributes.
+     */
+    static void write(File file, LayoutManagerState state, long dataVersion,
+                      int scrollContentWidth, int scrollContentHeight, PackedLayoutAttributes attributes, GridIndex index) throws IOException {
+        int itemCount = attributes.size();
+        File tempFile = new File(file.getPath() + ".tmp");
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)));
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(state.getLayoutSpaceWidth());
+            out.writeInt(state.getLayoutSpaceHeight());
+            out.writeInt(itemCount);
+            out.writeLong(dataVersion);
+            out.writeInt(scrollContentWidth);
+            out.writeInt(scrollContentHeight);
+            out.writeInt(index.getOriginX());
+            out.writeInt(index.getOriginY());
+            out.writeInt(index.getCellWidth());
+            out.writeInt(index.getCellHeight());
+            out.writeInt(index.getColumnCount());
+            out.writeInt(index.getRowCount());
+            for (int i = 0; i < itemCount; i++) {
+                out.writeInt(attributes.getLeft(i));
+                out.writeInt(attributes.getTop(i));
+                out.writeInt(attributes.getRight(i));
+                out.writeInt(attributes.getBottom(i));
+            }
+            int cellCount = index.getColumnCount() * index.getRowCount();
+            for (int cell = 0; cell <= cellCount; cell++) {
+                out.writeInt(index.getCellStart(cell));
+            }
+            for (int i = 0, count = index.getCellStart(cellCount); i < count; i++) {
+                out.writeInt(index.getCellPosition(i));
+            }
+        } finally {
+            out.close();
+        }
+        if (!tempFile.renameTo(file)) {
+            tempFile.delete();
+            throw new IOException("Could not rename layout snapshot file to: " + file);
+        }
+    }
+
+    /**
+     * Map file read-only. Mapping stays valid after file is replaced or deleted.
+     *
+     * @throws IOException If file does not exist or is not a valid snapshot file.
+     */
+    public static LayoutSnapshotFile map(File file) throws IOException {
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = randomAccessFile.getChannel();
+            return new LayoutSnapshotFile(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } finally {
+            randomAccessFile.close();
+        }
+    }
+
+    /**
+     * Load whole file into memory, so that later queries do not read from storage. Call off main thread.
+     */
+    void load() {
+        mBuffer.load();
+    }
+
+    /**
+     * @return {@code true} if this file is written for the state and data version.
+     */
+    public boolean isFor(LayoutManagerState state, long dataVersion) {
+        return mLayoutSpaceWidth == state.getLayoutSpaceWidth()
+                && mLayoutSpaceHeight == state.getLayoutSpaceHeight()
+                && mItemCount == state.getItemCount()
+                && mDataVersion == dataVersion;
+    }
+
+    public int getScrollContentWidth() {
+        return mScrollContentWidth;
+    }
+
+    public int getScrollContentHeight() {
+        return mScrollContentHeight;
+    }
+
+    public int getItemCount() {
+        return mItemCount;
+    }
+
+    /**
+     * Visit items intersecting with rect, by reading cells of the grid index in the rect.
+     */
+    public void forEachLayoutAttributeInRect(Rect rect, LayoutAttributeVisitor visitor) {
+        if (mItemCount == 0) return;
+        ByteBuffer buffer = mBuffer;
+        int firstColumn = getColumnForX(rect.left);
+        int lastColumn = getColumnForX(Math.max(rect.left, rect.right - 1));
+        int firstRow = getRowForY(rect.top);
+        int lastRow = getRowForY(Math.max(rect.top, rect.bottom - 1));
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                int cell = row * mColumnCount + column;
+                for (int i = getCellStart(cell), end = getCellStart(cell + 1); i < end; i++) {
+                    int position = buffer.getInt(mCellPositionsOffset + i * 4);
+                    int offset = HEADER_SIZE + position * RECORD_SIZE;
+                    int left = buffer.getInt(offset);
+                    int top = buffer.getInt(offset + 4);
+                    int right = buffer.getInt(offset + 8);
+                    int bottom = buffer.getInt(offset + 12);
+                    if (!rect.intersects(left, top, right, bottom)) {
+                        continue;
+                    }
+                    // Same as GridIndex, item spanning multiple cells is reported only from one cell.
+                    if (getColumnForX(Math.max(left, rect.left)) != column
+                            || getRowForY(Math.max(top, rect.top)) != row) {
+                        continue;
+                    }
+                    visitor.visitLayoutAttribute(position, left, top, right, bottom);
+                }
+            }
+        }
+    }
+
+    /**
+     * Create {@link LayoutAttribute} object for item at position. Not intended for use in hot path.
+     */
+    public LayoutAttribute createLayoutAttribute(int position) {
+        if (position < 0 || position >= mItemCount) {
+            throw new IndexOutOfBoundsException("position: " + position + ", size: " + mItemCount);
+        }
+        int offset = HEADER_SIZE + position * RECORD_SIZE;
+        return new LayoutAttribute(position, new Rect(
+                mBuffer.getInt(offset),
+                mBuffer.getInt(offset + 4),
+                mBuffer.getInt(offset + 8),
+                mBuffer.getInt(offset + 12)));
+    }
+
+    private int getCellStart(int cell) {
+        return mBuffer.getInt(mCellStartsOffset + cell * 4);
+    }
+
+    private int getColumnForX(int x) {
+        long column = ((long) x - mOriginX) / mCellWidth;
+        return (int) Math.max(0, Math.min(mColumnCount - 1, column));
+    }
+
+    private int getRowForY(int y) {
+        long row = ((long) y - mOriginY) / mCellHeight;
+        return (int) Math.max(0, Math.min(mRowCount - 1, row));
+    }
+}
@@ -0,0 +1,228 @@
+/*
+ * Copyright (C) 2015 Yuya Tanaka
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ypresto.recyclerview.absolutelayoutmanager;
+
+import android.graphics.Rect;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Vertical staggered grid which places each item on the currently shortest column.
+ * <p>
+ * Shortest column is tracked by a min-heap of column bottoms (skyline), so placing an item costs O(log columns),
+ * and appended items are placed without recalculating others. Tops and bottoms in a column are increasing,
+ * so rect query binary-searches each column instead of scanning all items.
+ */
+public abstract class MasonryLayoutProvider extends AbsoluteLayoutManager.LayoutProvider {
+    private final int mColumnCount;
+    private final Column[] mColumns;
+    // Min-heap of column indices ordered by next top, then by index so that ties go to the left.
+    private final int[] mSkyline;
+    private final PackedLayoutAttributes mAttributes = new PackedLayoutAttributes();
+    private int mInterItemSpacing;
+
+    /**
+     * @param columnCount Number of equal width columns.
+     */
+    public MasonryLayoutProvider(int columnCount) {
+        if (columnCount <= 0) {
+            throw new IllegalArgumentException("columnCount must be positive: " + columnCount);
+        }
+        mColumnCount = columnCount;
+        mColumns = new Column[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            mColumns[i] = new Column();
+        }
+        mSkyline = new int[columnCount];
+    }
+
+    /**
+     * Calculate height of an item. Called in adapter order while placing items.
+     *
+     * @param position    Adapter position of the item.
+     * @param columnWidth Width of the column the item is placed on.
+     */
+    protected abstract int getItemHeight(int position, int columnWidth);
+
+    /**
+     * Set space between columns and between items in a column. Call {@link AbsoluteLayoutManager#invalidateLayout()} after changing it.
+     */
+    public void setInterItemSpacing(int interItemSpacing) {
+        mInterItemSpacing = interItemSpacing;
+    }
+
+    public int getColumnCount() {
+        return mColumnCount;
+    }
+
+    @Override
+    public void prepareLayout() {
+        int width = getState().getLayoutSpaceWidth();
+        SpanCalculator spanCalculator = new SpanCalculator(mInterItemSpacing);
+        for (int i = 0; i < mColumnCount; i++) {
+            Column column = mColumns[i];
+            column.mLeft = spanCalculator.calculateStartOffsetForSpan(i, mColumnCount, width);
+            column.mRight = spanCalculator.calculateEndOffsetForSpan(i, mColumnCount, width);
+            column.mSize = 0;
+            column.mNextTop = 0;
+            mSkyline[i] = i;
+        }
+        mAttributes.setSize(0);
+        placeItems(0, getState().getItemCount());
+    }
+
+    /**
+     * Places appended items on the skyline. Insertion into middle needs whole layout.
+     */
+    @Override
+    public boolean onItemsInserted(int positionStart, int itemCount) {
+        int oldItemCount = mAttributes.size();
+        if (positionStart != oldItemCount || getState().getItemCount() != oldItemCount + itemCount) {
+            return false;
+        }
+        placeItems(oldItemCount, itemCount);
+        return true;
+    }
+
+    private void placeItems(int positionStart, int itemCount) {
+        mAttributes.setSize(positionStart + itemCount);
+        for (int position = positionStart; position < positionStart + itemCount; position++) {
+            Column column = mColumns[mSkyline[0]];
+            int top = column.mNextTop;
+            int bottom = top + getItemHeight(position, column.mRight - column.mLeft);
+            column.add(position, top, bottom);
+            column.mNextTop = bottom + mInterItemSpacing;
+            mAttributes.set(position, column.mLeft, top, column.mRight, bottom);
+            siftDownSkyline();
+        }
+    }
+
+    private void siftDownSkyline() {
+        int index = 0;
+        while (true) {
+            int smallest = index;
+            int left = index * 2 + 1;
+            int right = left + 1;
+            if (left < mColumnCount && isLowerColumn(mSkyline[left], mSkyline[smallest])) {
+                smallest = left;
+            }
+            if (right < mColumnCount && isLowerColumn(mSkyline[right], mSkyline[smallest])) {
+                smallest = right;
+            }
+            if (smallest == index) return;
+            int tmp = mSkyline[index];
+            mSkyline[index] = mSkyline[smallest];
+            mSkyline[smallest] = tmp;
+            index = smallest;
+        }
+    }
+
+    private boolean isLowerColumn(int column, int otherColumn) {
+        int nextTop = mColumns[column].mNextTop;
+        int otherNextTop = mColumns[otherColumn].mNextTop;
+        return nextTop < otherNextTop || (nextTop == otherNextTop && column < otherColumn);
+    }
+
+    @Override
+    public int getScrollContentWidth() {
+        return getState().getLayoutSpaceWidth();
+    }
+
+    @Override
+    public int getScrollContentHeight() {
+        int height = 0;
+        for (Column column : mColumns) {
+            if (column.mSize > 0) {
+                height = Math.max(height, column.mBottoms[column.mSize - 1]);
+            }
+        }
+        return height;
+    }
+
+    @Override
+    public PackedLayoutAttributes getPackedLayoutAttributes() {
+        return mAttributes;
+    }
+
+    @Override
+    public List<LayoutAttribute> getLayoutAttributesInRect(Rect rect) {
+        return collectLayoutAttributesInRect(rect);
+    }
+
+    @Override
+    public void forEachLayoutAttributeInRect(Rect rect, LayoutAttributeVisitor visitor) {
+        for (Column column : mColumns) {
+            if (column.mRight <= rect.left || column.mLeft >= rect.right) continue;
+            for (int i = column.findFirstWithBottomAfter(rect.top); i < column.mSize; i++) {
+                int top = column.mTops[i];
+                if (top >= rect.bottom) break;
+                int bottom = column.mBottoms[i];
+                if (rect.intersects(column.mLeft, top, column.mRight, bottom)) {
+                    visitor.visitLayoutAttribute(column.mPositions[i], column.mLeft, top, column.mRight, bottom);
+                }
+            }
+        }
+    }
+
+    @Override
+    public LayoutAttribute getLayoutAttributeForItemAtPosition(int position) {
+        return mAttributes.createLayoutAttribute(position);
+    }
+
+    /**
+     * Items placed on a column, in adapter order. Both tops and bottoms are non-decreasing.
+     */
+    private static final class Column {
+        int mLeft;
+        int mRight;
+        int mNextTop;
+        int mSize;
+        int[] mPositions = new int[16];
+        int[] mTops = new int[16];
+        int[] mBottoms = new int[16];
+
+        void add(int position, int top, int bottom) {
+            if (mSize == mPositions.length) {
+                int capacity = mSize * 2;
+                mPositions = Arrays.copyOf(mPositions, capacity);
+                mTops = Arrays.copyOf(mTops, capacity);
+                mBottoms = Arrays.copyOf(mBottoms, capacity);
+            }
+            mPositions[mSize] = position;
+            mTops[mSize] = top;
+            mBottoms[mSize] = bottom;
+            mSize++;
+        }
+
+        /**
+         * @return Index of first item whose bottom is greater than y, or size if none.
+         */
+        int findFirstWithBottomAfter(int y) {
+            int low = 0;
+            int high = mSize;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (mBottoms[mid] <= y) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
@@ -0,0 +1,232 @@
+/*
+ * Copyright (C) 2015 Yuya Tanaka
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ypresto.recyclerview.absolutelayoutmanager;
+
+import android.graphics.Rect;
+
+import net.ypresto.recyclerview.absolutelayoutmanager.AbsoluteLayoutManager.LayoutProvider.LayoutAttribute;
+
+import java.util.Arrays;
+
+/**
+ * Absolute rects of items stored in primitive arrays, indexed by adapter position.
+ * Costs 16 bytes per item, instead of a {@link LayoutAttribute} and a {@link Rect} object per item.
+ * Return it from {@link AbsoluteLayoutManager.LayoutProvider#getPackedLayoutAttributes()} to let
+ * layout manager read item geometry without creating {@link LayoutAttribute} objects.
+ */
+public class PackedLayoutAttributes {
+    private int mSize;
+    private int[] mLefts;
+    private int[] mTops;
+    private int[] mRights;
+    private int[] mBottoms;
+
+    public PackedLayoutAttributes() {
+        this(0);
+    }
+
+    public PackedLayoutAttributes(int initialCapacity) {
+        mLefts = new int[initialCapacity];
+        mTops = new int[initialCapacity];
+        mRights = new int[initialCapacity];
+        mBottoms = new int[initialCapacity];
+    }
+
+    /**
+     * @return Number of items.
+     */
+    public int size() {
+        return mSize;
+    }
+
+    /**
+     * Change number of items. Rects of existing items are kept, and added items have empty rect.
+     *
+     * @param size New number of items.
+     */
+    public void setSize(int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("size must not be negative: " + size);
+        }
+        ensureCapacity(size);
+        if (size > mSize) {
+            Arrays.fill(mLefts, mSize, size, 0);
+            Arrays.fill(mTops, mSize, size, 0);
+            Arrays.fill(mRights, mSize, size, 0);
+            Arrays.fill(mBottoms, mSize, size, 0);
+        }
+        mSize = size;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (mLefts.length >= capacity) return;
+        int newCapacity = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(capacity, mLefts.length * 3L / 2));
+        mLefts = Arrays.copyOf(mLefts, newCapacity);
+        mTops = Arrays.copyOf(mTops, newCapacity);
+        mRights = Arrays.copyOf(mRights, newCapacity);
+        mBottoms = Arrays.copyOf(mBottoms, newCapacity);
+    }
+
+    /**
+     * Insert items with empty rect, shifting following items. Useful for
+     * {@link AbsoluteLayoutManager.LayoutProvider#onItemsInserted(int, int)}.
+     */
+    public void insert(int positionStart, int itemCount) {
+        if (positionStart < 0 || positionStart > mSize || itemCount < 0) {
+            throw new IndexOutOfBoundsException("positionStart: " + positionStart + ", itemCount: " + itemCount + ", size: " + mSize);
+        }
+        ensureCapacity(mSize + itemCount);
+        int tailCount = mSize - positionStart;
+        for (int[] column : columns()) {
+            System.arraycopy(column, positionStart, column, positionStart + itemCount, tailCount);
+            Arrays.fill(column, positionStart, positionStart + itemCount, 0);
+        }
+        mSize += itemCount;
+    }
+
+    /**
+     * Remove items, shifting following items. Useful for
+     * {@link AbsoluteLayoutManager.LayoutProvider#onItemsRemoved(int, int)}.
+     */
+    public void remove(int positionStart, int itemCount) {
+        if (positionStart < 0 || itemCount < 0 || positionStart + itemCount > mSize) {
+            throw new IndexOutOfBoundsException("positionStart: " + positionStart + ", itemCount: " + itemCount + ", size: " + mSize);
+        }
+        int tailCount = mSize - positionStart - itemCount;
+        for (int[] column : columns()) {
+            System.arraycopy(column, positionStart + itemCount, column, positionStart, tailCount);
+        }
+        mSize -= itemCount;
+    }
+
+    /**
+     * Move rects of items, as same as adapter position changes by
+     * {@link AbsoluteLayoutManager.LayoutProvider#onItemsMoved(int, int, int)}.
+     * Note that rects usually need to be recalculated after this, because items are moved to another slot.
+     */
+    public void move(int fromPosition, int toPosition, int itemCount) {
+        if (fromPosition < 0 || toPosition < 0 || itemCount < 0
+                || fromPosition + itemCount > mSize || toPosition + itemCount > mSize) {
+            throw new IndexOutOfBoundsException("fromPosition: " + fromPosition + ", toPosition: " + toPosition + ", itemCount: " + itemCount + ", size: " + mSize);
+        }
+        if (fromPosition == toPosition || itemCount == 0) return;
+        int[] moved = new int[itemCount];
+        for (int[] column : columns()) {
+            System.arraycopy(column, fromPosition, moved, 0, itemCount);
+            if (fromPosition < toPosition) {
+                System.arraycopy(column, fromPosition + itemCount, column, fromPosition, toPosition - fromPosition);
+            } else {
+                System.arraycopy(column, toPosition, column, toPosition + itemCount, fromPosition - toPosition);
+            }
+            System.arraycopy(moved, 0, column, toPosition, itemCount);
+        }
+    }
+
+    private int[][] columns() {
+        return new int[][]{mLefts, mTops, mRights, mBottoms};
+    }
+
+    public void set(int position, int left, int top, int right, int bottom) {
+        checkPosition(position);
+        mLefts[position] = left;
+        mTops[position] = top;
+        mRights[position] = right;
+        mBottoms[position] = bottom;
+    }
+
+    public void set(int position, Rect rect) {
+        set(position, rect.left, rect.top, rect.right, rect.bottom);
+    }
+
+    public int getLeft(int position) {
+        checkPosition(position);
+        return mLefts[position];
+    }
+
+    public int getTop(int position) {
+        checkPosition(position);
+        return mTops[position];
+    }
+
+    public int getRight(int position) {
+        checkPosition(position);
+        return mRights[position];
+    }
+
+    public int getBottom(int position) {
+        checkPosition(position);
+        return mBottoms[position];
+    }
+
+    public int getWidth(int position) {
+        return getRight(position) - getLeft(position);
+    }
+
+    public int getHeight(int position) {
+        return getBottom(position) - getTop(position);
+    }
+
+    /**
+     * Write rect of item at position to outRect.
+     */
+    public void getRect(int position, Rect outRect) {
+        checkPosition(position);
+        outRect.set(mLefts[position], mTops[position], mRights[position], mBottoms[position]);
+    }
+
+    public boolean isIntersectWithRect(int position, Rect rect) {
+        checkPosition(position);
+        return rect.intersects(mLefts[position], mTops[position], mRights[position], mBottoms[position]);
+    }
+
+    /**
+     * @return Copy of rects with capacity of current size, which is not affected by later changes to this object.
+     */
+    PackedLayoutAttributes copy() {
+        PackedLayoutAttributes copy = new PackedLayoutAttributes();
+        copy.mSize = mSize;
+        copy.mLefts = Arrays.copyOf(mLefts, mSize);
+        copy.mTops = Arrays.copyOf(mTops, mSize);
+        copy.mRights = Arrays.copyOf(mRights, mSize);
+        copy.mBottoms = Arrays.copyOf(mBottoms, mSize);
+        return copy;
+    }
+
+    /**
+     * Create {@link LayoutAttribute} object for item at position. Not intended for use in hot path.
+     */
+    public LayoutAttribute createLayoutAttribute(int position) {
+        checkPosition(position);
+        return new LayoutAttribute(position, new Rect(mLefts[position], mTops[position], mRights[position], mBottoms[position]));
+    }
+
+    /**
+     * Visit all items intersecting with rect by scanning every item.
+     */
+    public void forEachLayoutAttributeInRect(Rect rect, AbsoluteLayoutManager.LayoutProvider.LayoutAttributeVisitor visitor) {
+        for (int i = 0; i < mSize; i++) {
+            if (rect.intersects(mLefts[i], mTops[i], mRights[i], mBottoms[i])) {
+                visitor.visitLayoutAttribute(i, mLefts[i], mTops[i], mRights[i], mBottoms[i]);
+            }
+        }
+    }
+
+    private void checkPosition(int position) {
+        if (position < 0 || position >= mSize) {
+            throw new IndexOutOfBoundsException("position: " + position + ", size: " + mSize);
+        }
+    }
+}
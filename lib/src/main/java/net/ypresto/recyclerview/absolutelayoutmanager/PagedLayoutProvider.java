@@ -0,0 +1,242 @@
+/*
+ * Copyright (C) 2015 Yuya Tanaka
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ypresto.recyclerview.absolutelayoutmanager;
+
+import android.graphics.Point;
+import android.graphics.Rect;
+
+import java.util.List;
+
+/**
+ * Vertical {@link AbsoluteLayoutManager.LayoutProvider} which calculates layout page by page,
+ * only when the region is requested. Cost of {@link #prepareLayout()} is proportional to page count,
+ * so it can handle effectively unbounded number of items.
+ * <p>
+ * Pages not yet calculated have estimated height. When a page is calculated for filling views, content
+ * height is refined and layout manager adjusts scroll offset so that visible items do not jump.
+ * Other queries (e.g. prefetch or scroll to position) may calculate rects of a page, but its height
+ * is not refined until the page is filled.
+ * Rects of distant pages are evicted, but their refined heights are kept.
+ */
+public abstract class PagedLayoutProvider extends AbsoluteLayoutManager.LayoutProvider {
+    private final int mPageSize;
+    private final int mMaximumCachedPageCount;
+
+    private int mPageCount;
+    private int[] mPageHeights = new int[0];
+    private boolean[] mIsPageHeightKnown = new boolean[0];
+    private FenwickTree mPageOffsets = new FenwickTree(mPageHeights, 0);
+
+    // Small LRU cache of page rects, scanned linearly to avoid boxing.
+    private final int[] mCachedPageIndices;
+    private final long[] mCachedPageLastAccess;
+    private final PackedLayoutAttributes[] mCachedPages;
+    // Calculated height of cached page, which may not be committed to mPageHeights yet.
+    private final int[] mCachedPageHeights;
+    private long mAccessCounter;
+
+    /**
+     * @param pageSize               Number of items calculated at once.
+     * @param maximumCachedPageCount Number of pages to keep rects. Should cover a few screens.
+     */
+    public PagedLayoutProvider(int pageSize, int maximumCachedPageCount) {
+        if (pageSize <= 0 || maximumCachedPageCount <= 0) {
+            throw new IllegalArgumentException("pageSize and maximumCachedPageCount must be positive.");
+        }
+        mPageSize = pageSize;
+        mMaximumCachedPageCount = maximumCachedPageCount;
+        mCachedPageIndices = new int[maximumCachedPageCount];
+        mCachedPageLastAccess = new long[maximumCachedPageCount];
+        mCachedPages = new PackedLayoutAttributes[maximumCachedPageCount];
+        mCachedPageHeights = new int[maximumCachedPageCount];
+    }
+
+    /**
+     * @return Estimated height of an item, used for pages not calculated yet.
+     */
+    protected abstract int getEstimatedItemHeight();
+
+    /**
+     * Calculate rects of items in a page, relative to top of the page.
+     * Must return same result for same page until next {@link #prepareLayout()}, as rects may be evicted and recalculated.
+     *
+     * @param firstPosition Adapter position of first item in the page.
+     * @param itemCount     Number of items in the page.
+     * @param outAttributes Write rects of items here, indexed from 0. Size is already set to itemCount.
+     * @return Height of the page.
+     */
+    protected abstract int layoutPage(int firstPosition, int itemCount, PackedLayoutAttributes outAttributes);
+
+    @Override
+    public void prepareLayout() {
+        int itemCount = getState().getItemCount();
+        mPageCount = (itemCount + mPageSize - 1) / mPageSize;
+        mPageHeights = new int[mPageCount];
+        mIsPageHeightKnown = new boolean[mPageCount];
+        int estimatedItemHeight = getEstimatedItemHeight();
+        for (int i = 0; i < mPageCount; i++) {
+            mPageHeights[i] = estimatedItemHeight * getItemCountInPage(i);
+        }
+        mPageOffsets = new FenwickTree(mPageHeights, mPageCount);
+        for (int i = 0; i < mMaximumCachedPageCount; i++) {
+            mCachedPages[i] = null;
+            mCachedPageLastAccess[i] = 0;
+        }
+    }
+
+    @Override
+    public int getScrollContentWidth() {
+        return getState().getLayoutSpaceWidth();
+    }
+
+    /**
+     * @return Height of content, including estimated height of pages not calculated yet.
+     */
+    @Override
+    public int getScrollContentHeight() {
+        return (int) Math.min(Integer.MAX_VALUE, mPageOffsets.sum());
+    }
+
+    @Override
+    public List<LayoutAttribute> getLayoutAttributesInRect(Rect rect) {
+        return collectLayoutAttributesInRect(rect);
+    }
+
+    @Override
+    public void forEachLayoutAttributeInRect(Rect rect, LayoutAttributeVisitor visitor) {
+        if (mPageCount == 0) return;
+        for (int page = mPageOffsets.indexOf(rect.top); page < mPageCount; page++) {
+            int pageTop = getPageTop(page);
+            if (pageTop >= rect.bottom) break;
+            PackedLayoutAttributes attributes = getPage(page);
+            int firstPosition = page * mPageSize;
+            for (int i = 0, size = attributes.size(); i < size; i++) {
+                int top = attributes.getTop(i) + pageTop;
+                int bottom = attributes.getBottom(i) + pageTop;
+                int left = attributes.getLeft(i);
+                int right = attributes.getRight(i);
+                if (rect.intersects(left, top, right, bottom)) {
+                    visitor.visitLayoutAttribute(firstPosition + i, left, top, right, bottom);
+                }
+            }
+        }
+    }
+
+    @Override
+    public LayoutAttribute getLayoutAttributeForItemAtPosition(int position) {
+        int page = position / mPageSize;
+        PackedLayoutAttributes attributes = getPage(page);
+        int index = position - page * mPageSize;
+        int pageTop = getPageTop(page);
+        return new LayoutAttribute(position, new Rect(
+                attributes.getLeft(index),
+                attributes.getTop(index) + pageTop,
+                attributes.getRight(index),
+                attributes.getBottom(index) + pageTop));
+    }
+
+    /**
+     * Calculate pages in the rect. Refinements of pages before the first already calculated page
+     * are compensated, so that items already shown stay at the same place.
+     */
+    @Override
+    boolean prepareRegion(Rect rect, Point outScrollCompensation) {
+        outScrollCompensation.set(0, 0);
+        if (mPageCount == 0) return false;
+        boolean isChanged = false;
+        boolean isKnownPageFound = false;
+        int compensation = 0;
+        for (int page = mPageOffsets.indexOf(rect.top); page < mPageCount && getPageTop(page) < rect.bottom + compensation; page++) {
+            if (mIsPageHeightKnown[page]) {
+                isKnownPageFound = true;
+                continue;
+            }
+            int delta = calculatePageHeight(page);
+            if (delta == 0) continue;
+            isChanged = true;
+            if (!isKnownPageFound) {
+                compensation += delta;
+            }
+        }
+        if (isKnownPageFound) {
+            outScrollCompensation.y = compensation;
+        }
+        return isChanged;
+    }
+
+    private int getItemCountInPage(int page) {
+        return Math.min(mPageSize, getState().getItemCount() - page * mPageSize);
+    }
+
+    private int getPageTop(int page) {
+        return (int) Math.min(Integer.MAX_VALUE, mPageOffsets.prefixSum(page));
+    }
+
+    /**
+     * Calculate page if its height is not known yet, and commit its height to offsets of following pages.
+     * Only called from {@link #prepareRegion(Rect, Point)}, so that layout manager follows the change.
+     *
+     * @return Difference from estimated height.
+     */
+    private int calculatePageHeight(int page) {
+        if (mIsPageHeightKnown[page]) return 0;
+        int height = mCachedPageHeights[findOrLayoutPage(page)];
+        int delta = height - mPageHeights[page];
+        if (delta != 0) {
+            mPageOffsets.add(page, delta);
+            mPageHeights[page] = height;
+        }
+        mIsPageHeightKnown[page] = true;
+        return delta;
+    }
+
+    /**
+     * @return Rects of items in the page, relative to top of the page.
+     */
+    private PackedLayoutAttributes getPage(int page) {
+        return mCachedPages[findOrLayoutPage(page)];
+    }
+
+    /**
+     * Find page in cache, or calculate it into least recently used slot. Height of the page is not committed.
+     *
+     * @return Index of cache slot.
+     */
+    private int findOrLayoutPage(int page) {
+        // Empty slots have last access of 0, so they are used first.
+        int leastRecentlyUsed = 0;
+        for (int i = 0; i < mMaximumCachedPageCount; i++) {
+            if (mCachedPages[i] != null && mCachedPageIndices[i] == page) {
+                mCachedPageLastAccess[i] = ++mAccessCounter;
+                return i;
+            }
+            if (mCachedPageLastAccess[i] < mCachedPageLastAccess[leastRecentlyUsed]) {
+                leastRecentlyUsed = i;
+            }
+        }
+        PackedLayoutAttributes attributes = mCachedPages[leastRecentlyUsed];
+        if (attributes == null) {
+            attributes = new PackedLayoutAttributes(mPageSize);
+        }
+        int itemCount = getItemCountInPage(page);
+        attributes.setSize(itemCount);
+        mCachedPageHeights[leastRecentlyUsed] = layoutPage(page * mPageSize, itemCount, attributes);
+        mCachedPages[leastRecentlyUsed] = attributes;
+        mCachedPageIndices[leastRecentlyUsed] = page;
+        mCachedPageLastAccess[leastRecentlyUsed] = ++mAccessCounter;
+        return leastRecentlyUsed;
+    }
+}
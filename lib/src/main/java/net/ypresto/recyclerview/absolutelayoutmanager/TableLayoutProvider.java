@@ -0,0 +1,182 @@
+/*
+ * Copyright (C) 2015 Yuya Tanaka
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ypresto.recyclerview.absolutelayoutmanager;
+
+import android.graphics.Rect;
+
+import java.util.List;
+
+/**
+ * Table of variable height rows and variable width columns, with items placed in row-major order.
+ * Only prefix sums of row heights and column widths are kept, so rect query is binary search of
+ * row and column ranges, and a row or column is resized in O(log n) without {@link #prepareLayout()}.
+ */
+public abstract class TableLayoutProvider extends AbsoluteLayoutManager.LayoutProvider {
+    private final int mColumnCount;
+    private int mRowCount;
+    private int mFrozenRowCount;
+    private int mFrozenColumnCount;
+    private FenwickTree mRowOffsets = new FenwickTree(new int[0], 0);
+    private FenwickTree mColumnOffsets = new FenwickTree(new int[0], 0);
+
+    /**
+     * @param columnCount Number of columns. Number of rows is decided by item count.
+     */
+    public TableLayoutProvider(int columnCount) {
+        if (columnCount <= 0) {
+            throw new IllegalArgumentException("columnCount must be positive: " + columnCount);
+        }
+        mColumnCount = columnCount;
+    }
+
+    /**
+     * @return Height of the row, called for all rows in {@link #prepareLayout()}.
+     */
+    protected abstract int getRowHeight(int row);
+
+    /**
+     * @return Width of the column, called for all columns in {@link #prepareLayout()}.
+     */
+    protected abstract int getColumnWidth(int column);
+
+    public int getColumnCount() {
+        return mColumnCount;
+    }
+
+    public int getRowCount() {
+        return mRowCount;
+    }
+
+    /**
+     * Keep first rows at top of viewport while scrolling vertically, as header rows.
+     * Call {@link AbsoluteLayoutManager#notifyLayoutChanged()} after changing it.
+     */
+    public void setFrozenRowCount(int frozenRowCount) {
+        mFrozenRowCount = frozenRowCount;
+    }
+
+    /**
+     * Keep first columns at left of viewport while scrolling horizontally, as header columns.
+     * Call {@link AbsoluteLayoutManager#notifyLayoutChanged()} after changing it.
+     */
+    public void setFrozenColumnCount(int frozenColumnCount) {
+        mFrozenColumnCount = frozenColumnCount;
+    }
+
+    @Override
+    public boolean hasPinnedItems() {
+        return mFrozenRowCount > 0 || mFrozenColumnCount > 0;
+    }
+
+    @Override
+    public int getPinnedAxes(int position) {
+        int pinnedAxes = PIN_NONE;
+        if (position / mColumnCount < mFrozenRowCount) {
+            pinnedAxes |= PIN_VERTICAL;
+        }
+        if (position % mColumnCount < mFrozenColumnCount) {
+            pinnedAxes |= PIN_HORIZONTAL;
+        }
+        return pinnedAxes;
+    }
+
+    @Override
+    public void prepareLayout() {
+        mRowCount = (getState().getItemCount() + mColumnCount - 1) / mColumnCount;
+        int[] rowHeights = new int[mRowCount];
+        for (int row = 0; row < mRowCount; row++) {
+            rowHeights[row] = getRowHeight(row);
+        }
+        mRowOffsets = new FenwickTree(rowHeights, mRowCount);
+        int[] columnWidths = new int[mColumnCount];
+        for (int column = 0; column < mColumnCount; column++) {
+            columnWidths[column] = getColumnWidth(column);
+        }
+        mColumnOffsets = new FenwickTree(columnWidths, mColumnCount);
+    }
+
+    /**
+     * Resize a row in O(log n). Call {@link AbsoluteLayoutManager#notifyLayoutChanged()} after resizing.
+     * {@link #getRowHeight(int)} should return the new height too, as it is used on next {@link #prepareLayout()}.
+     */
+    public void setRowHeight(int row, int height) {
+        mRowOffsets.add(row, height - mRowOffsets.get(row));
+    }
+
+    /**
+     * Resize a column in O(log n). Call {@link AbsoluteLayoutManager#notifyLayoutChanged()} after resizing.
+     * {@link #getColumnWidth(int)} should return the new width too, as it is used on next {@link #prepareLayout()}.
+     */
+    public void setColumnWidth(int column, int width) {
+        mColumnOffsets.add(column, width - mColumnOffsets.get(column));
+    }
+
+    @Override
+    public int getScrollContentWidth() {
+        return (int) Math.min(Integer.MAX_VALUE, mColumnOffsets.sum());
+    }
+
+    @Override
+    public int getScrollContentHeight() {
+        return (int) Math.min(Integer.MAX_VALUE, mRowOffsets.sum());
+    }
+
+    @Override
+    public List<LayoutAttribute> getLayoutAttributesInRect(Rect rect) {
+        return collectLayoutAttributesInRect(rect);
+    }
+
+    @Override
+    public void forEachLayoutAttributeInRect(Rect rect, LayoutAttributeVisitor visitor) {
+        if (mRowCount == 0) return;
+        int itemCount = getState().getItemCount();
+        int firstRow = mRowOffsets.indexOf(rect.top);
+        int firstColumn = mColumnOffsets.indexOf(rect.left);
+        long firstColumnLeft = mColumnOffsets.prefixSum(firstColumn);
+        long top = mRowOffsets.prefixSum(firstRow);
+        for (int row = firstRow; row < mRowCount && top < rect.bottom; row++) {
+            long bottom = top + mRowOffsets.get(row);
+            long left = firstColumnLeft;
+            for (int column = firstColumn; column < mColumnCount && left < rect.right; column++) {
+                long right = left + mColumnOffsets.get(column);
+                int position = row * mColumnCount + column;
+                if (position >= itemCount) break;
+                if (rect.intersects(clamp(left), clamp(top), clamp(right), clamp(bottom))) {
+                    visitor.visitLayoutAttribute(position, clamp(left), clamp(top), clamp(right), clamp(bottom));
+                }
+                left = right;
+            }
+            top = bottom;
+        }
+    }
+
+    @Override
+    public LayoutAttribute getLayoutAttributeForItemAtPosition(int position) {
+        int row = position / mColumnCount;
+        int column = position % mColumnCount;
+        long top = mRowOffsets.prefixSum(row);
+        long left = mColumnOffsets.prefixSum(column);
+        return new LayoutAttribute(position, new Rect(
+                clamp(left),
+                clamp(top),
+                clamp(left + mColumnOffsets.get(column)),
+                clamp(top + mRowOffsets.get(row))));
+    }
+
+    private static int clamp(long offset) {
+        return (int) Math.min(Integer.MAX_VALUE, offset);
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright (C) 2015 Yuya Tanaka
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ypresto.recyclerview.absolutelayoutmanager;
+
+import android.support.v7.widget.RecyclerView;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.lang.reflect.Field;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Scrolling should not allocate in {@link AbsoluteLayoutManager}, both within already filled rect and
+ * across its edge once recycled view pool is warmed up.
+ * Allocations of the thread are compared with only offsetting children by same distance, so that
+ * allocations of framework (or Robolectric shadows) are not counted as allocations of layout manager.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = Config.NONE, sdk = 26)
+public class ScrollAllocationTest {
+    private static final int WARMUP_ITERATION_COUNT = 2000;
+    private static final int ITERATION_COUNT = 1000;
+    // Content is about 6400 x 160000 pixels, so fling from start offset is not clamped in both phases.
+    private static final int FLING_STEP_DX = 1;
+    private static final int FLING_STEP_DY = 48;
+    private static final int FLING_WARMUP_STEP_COUNT = 500;
+    private static final int FLING_STEP_COUNT = 1000;
+
+    private ScrollHarness mHarness;
+    private AbsoluteLayoutManager mLayoutManager;
+    private RecyclerView.Recycler mRecycler;
+    private RecyclerView.State mState;
+
+    @Before
+    public void setUp() throws Exception {
+        TableLayoutProvider layoutProvider = new TableLayoutProvider(20) {
+            @Override
+            protected int getRowHeight(int row) {
+                return 120 + (row * 31) % 80;
+            }
+
+            @Override
+            protected int getColumnWidth(int column) {
+                return 240 + (column * 53) % 160;
+            }
+        };
+        mHarness = new ScrollHarness(RuntimeEnvironment.application, layoutProvider, 20000);
+        // Start away from edges, so that scroll in any direction is not clamped.
+        mHarness.mRecyclerView.scrollBy(2000, 6000);
+        mLayoutManager = mHarness.mLayoutManager;
+        mRecycler = getField(mHarness.mRecyclerView, "mRecycler");
+        mState = getField(mHarness.mRecyclerView, "mState");
+    }
+
+    @Test
+    public void scrollInFilledRectDoesNotAllocate() {
+        // Let fill extent settle and JIT compile scroll path.
+        scrollBackAndForth(WARMUP_ITERATION_COUNT);
+        LayoutCounters counters = mLayoutManager.getLayoutCounters();
+        counters.reset();
+        long overhead = ScrollHarness.measureAllocationOverhead();
+
+        long start = ScrollHarness.getAllocatedBytes();
+        scrollBackAndForth(ITERATION_COUNT);
+        long scrollBytes = ScrollHarness.getAllocatedBytes() - start - overhead;
+
+        start = ScrollHarness.getAllocatedBytes();
+        offsetChildrenBackAndForth(ITERATION_COUNT);
+        long offsetBytes = ScrollHarness.getAllocatedBytes() - start - overhead;
+
+        assertEquals("Steady state scroll should not fill: " + counters, 0, counters.getFullFillCount() + counters.getIncrementalFillCount());
+        assertEquals(0, counters.getAddedViewCount());
+        assertEquals(0, counters.getRecycledViewCount());
+        assertTrue("Layout manager allocated " + (scrollBytes - offsetBytes) + " bytes in " + ITERATION_COUNT + " iterations",
+                scrollBytes <= offsetBytes);
+    }
+
+    @Test
+    public void flingAcrossFilledRectDoesNotAllocate() {
+        // Fill recycled view pool with views of every type and JIT compile fill path.
+        fling(FLING_WARMUP_STEP_COUNT);
+        LayoutCounters counters = mLayoutManager.getLayoutCounters();
+        counters.reset();
+        long overhead = ScrollHarness.measureAllocationOverhead();
+
+        long start = ScrollHarness.getAllocatedBytes();
+        fling(FLING_STEP_COUNT);
+        long scrollBytes = ScrollHarness.getAllocatedBytes() - start - overhead;
+
+        start = ScrollHarness.getAllocatedBytes();
+        offsetChildren(FLING_STEP_COUNT);
+        long offsetBytes = ScrollHarness.getAllocatedBytes() - start - overhead;
+
+        assertTrue("Fling should fill incrementally: " + counters, counters.getIncrementalFillCount() > 0);
+        assertTrue("Fling should recycle: " + counters, counters.getRecycledViewCount() > 0);
+        assertTrue("Layout manager allocated " + (scrollBytes - offsetBytes) + " bytes in " + FLING_STEP_COUNT + " steps",
+                scrollBytes <= offsetBytes);
+    }
+
+    /**
+     * Scroll monotonically as frames of diagonal fling, horizontal first as {@link RecyclerView} does.
+     */
+    private void fling(int stepCount) {
+        for (int i = 0; i < stepCount; i++) {
+            mLayoutManager.scrollHorizontallyBy(FLING_STEP_DX, mRecycler, mState);
+            mLayoutManager.scrollVerticallyBy(FLING_STEP_DY, mRecycler, mState);
+        }
+    }
+
+    private void offsetChildren(int stepCount) {
+        for (int i = 0; i < stepCount; i++) {
+            mLayoutManager.offsetChildrenHorizontal(-FLING_STEP_DX);
+            mLayoutManager.offsetChildrenVertical(-FLING_STEP_DY);
+        }
+    }
+
+    private void scrollBackAndForth(int iterationCount) {
+        for (int i = 0; i < iterationCount; i++) {
+            mLayoutManager.scrollVerticallyBy(1, mRecycler, mState);
+            mLayoutManager.scrollHorizontallyBy(1, mRecycler, mState);
+            mLayoutManager.scrollVerticallyBy(-1, mRecycler, mState);
+            mLayoutManager.scrollHorizontallyBy(-1, mRecycler, mState);
+        }
+    }
+
+    private void offsetChildrenBackAndForth(int iterationCount) {
+        for (int i = 0; i < iterationCount; i++) {
+            mLayoutManager.offsetChildrenVertical(-1);
+            mLayoutManager.offsetChildrenHorizontal(-1);
+            mLayoutManager.offsetChildrenVertical(1);
+            mLayoutManager.offsetChildrenHorizontal(1);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T getField(RecyclerView recyclerView, String name) throws ReflectiveOperationException {
+        // Recycler and State of RecyclerView are package private.
+        Field field = RecyclerView.class.getDeclaredField(name);
+        field.setAccessible(true);
+        return (T) field.get(recyclerView);
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright (C) 2015 Yuya Tanaka
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ypresto.recyclerview.absolutelayoutmanager;
+
+import android.content.Context;
+import android.support.v7.widget.RecyclerView;
+import android.view.View;
+import android.view.ViewGroup;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Drives {@link RecyclerView} with {@link AbsoluteLayoutManager} by {@link ScrollTrace} and records work done in
+ * each frame, read from {@link LayoutCounters} and adapter.
+ */
+final class ScrollHarness {
+    static final int WIDTH = 1080;
+    static final int HEIGHT = 1920;
+
+    private static final com.sun.management.ThreadMXBean THREAD_MX_BEAN = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    final RecyclerView mRecyclerView;
+    final AbsoluteLayoutManager mLayoutManager;
+    final CountingAdapter mAdapter;
+
+    ScrollHarness(Context context, AbsoluteLayoutManager.LayoutProvider layoutProvider, int itemCount) {
+        mRecyclerView = new RecyclerView(context);
+        mLayoutManager = new AbsoluteLayoutManager(layoutProvider);
+        mAdapter = new CountingAdapter(itemCount);
+        mRecyclerView.setItemAnimator(null);
+        mRecyclerView.setLayoutManager(mLayoutManager);
+        mRecyclerView.setAdapter(mAdapter);
+        layout();
+    }
+
+    void layout() {
+        mRecyclerView.measure(
+                View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+        mRecyclerView.layout(0, 0, WIDTH, HEIGHT);
+    }
+
+    /**
+     * Scroll by each frame of trace, as {@link RecyclerView} does for fling or drag.
+     */
+    List<Frame> run(ScrollTrace trace) {
+        long allocationOverhead = measureAllocationOverhead();
+        LayoutCounters counters = mLayoutManager.getLayoutCounters();
+        List<Frame> frames = new ArrayList<>(trace.getFrameCount());
+        for (int i = 0; i < trace.getFrameCount(); i++) {
+            counters.reset();
+            mAdapter.mCreateCount = 0;
+            mAdapter.mBindCount = 0;
+            long allocatedBytes = getAllocatedBytes();
+            mRecyclerView.scrollBy(trace.mDx[i], trace.mDy[i]);
+            allocatedBytes = getAllocatedBytes() - allocatedBytes - allocationOverhead;
+            frames.add(new Frame(
+                    mAdapter.mCreateCount,
+                    mAdapter.mBindCount,
+                    counters.getMeasureCount(),
+                    counters.getRecycledViewCount(),
+                    counters.getScrappedViewCount(),
+                    Math.max(0, allocatedBytes)));
+        }
+        return frames;
+    }
+
+    static long getAllocatedBytes() {
+        return THREAD_MX_BEAN.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * @return Bytes allocated by {@link #getAllocatedBytes()} itself, subtracted from each measurement.
+     */
+    static long measureAllocationOverhead() {
+        long overhead = Long.MAX_VALUE;
+        for (int i = 0; i < 16; i++) {
+            long start = getAllocatedBytes();
+            overhead = Math.min(overhead, getAllocatedBytes() - start);
+        }
+        return overhead;
+    }
+
+    static final class Frame {
+        final int mCreateCount;
+        final int mBindCount;
+        final int mMeasureCount;
+        final int mRecycleCount;
+        final int mScrapCount;
+        final long mAllocatedBytes;
+
+        Frame(int createCount, int bindCount, int measureCount, int recycleCount, int scrapCount, long allocatedBytes) {
+            mCreateCount = createCount;
+            mBindCount = bindCount;
+            mMeasureCount = measureCount;
+            mRecycleCount = recycleCount;
+            mScrapCount = scrapCount;
+            mAllocatedBytes = allocatedBytes;
+        }
+    }
+
+    static final class CountingAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
+        private final int mItemCount;
+        int mCreateCount;
+        int mBindCount;
+
+        CountingAdapter(int itemCount) {
+            mItemCount = itemCount;
+        }
+
+        @Override
+        public RecyclerView.ViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+            mCreateCount++;
+            View view = new View(parent.getContext());
+            view.setLayoutParams(new RecyclerView.LayoutParams(ViewGroup.LayoutParams.WRAP_CONTENT, ViewGroup.LayoutParams.WRAP_CONTENT));
+            return new RecyclerView.ViewHolder(view) {
+            };
+        }
+
+        @Override
+        public void onBindViewHolder(RecyclerView.ViewHolder holder, int position) {
+            mBindCount++;
+        }
+
+        @Override
+        public int getItemCount() {
+            return mItemCount;
+        }
+    }
+}
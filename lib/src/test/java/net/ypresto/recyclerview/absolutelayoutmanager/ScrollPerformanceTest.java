@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2015 Yuya Tanaka
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ypresto.recyclerview.absolutelayoutmanager;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.io.File;
+import java.util.List;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs scripted fling and pan traces over layout providers, writes summary and per-frame values to
+ * {@code build/reports/scroll-harness/report.txt}, and fails if totals regress from, or are missing in,
+ * {@code src/test/resources/scroll-baseline.properties}.
+ * Pass {@code -PrecordScrollBaseline} to record new baseline after intended changes.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = Config.NONE, sdk = 26)
+public class ScrollPerformanceTest {
+    private static final File REPORT_FILE = new File("build/reports/scroll-harness/report.txt");
+    private static final File BASELINE_FILE = new File("src/test/resources/scroll-baseline.properties");
+
+    @Test
+    public void scrollTracesDoNotRegressFromBaseline() throws Exception {
+        ScrollReport report = new ScrollReport();
+        run(report, "gridFling", createGridLayoutProvider(), 2000, 0, 0,
+                ScrollTrace.fling("fling", 0, 12000, 0.04f));
+        run(report, "gridSlowPan", createGridLayoutProvider(), 2000, 0, 6000,
+                ScrollTrace.pan("pan", 0, 400, 120, 2));
+        run(report, "masonryFling", createMasonryLayoutProvider(), 2000, 0, 0,
+                ScrollTrace.fling("fling", 0, 12000, 0.04f));
+        run(report, "tableDiagonalFling", createTableLayoutProvider(), 20000, 0, 0,
+                ScrollTrace.fling("fling", 6000, 9000, 0.04f));
+        run(report, "tablePan", createTableLayoutProvider(), 20000, 2000, 6000,
+                ScrollTrace.pan("pan", 1000, 800, 180, 2));
+
+        report.write(REPORT_FILE);
+        if (Boolean.getBoolean("scrollHarness.recordBaseline")) {
+            report.recordBaseline(BASELINE_FILE);
+            return;
+        }
+        List<String> regressions = report.checkBaseline(BASELINE_FILE);
+        assertTrue("Scroll performance regressed:\n" + regressions + "\n" + report, regressions.isEmpty());
+    }
+
+    private static void run(ScrollReport report, String scenario, AbsoluteLayoutManager.LayoutProvider layoutProvider,
+                            int itemCount, int startScrollX, int startScrollY, ScrollTrace trace) {
+        ScrollHarness harness = new ScrollHarness(RuntimeEnvironment.application, layoutProvider, itemCount);
+        harness.mRecyclerView.scrollBy(startScrollX, startScrollY);
+        // Warm up recycled view pool and JIT with one run, so that the second run is closer to steady state.
+        harness.run(trace);
+        report.add(scenario, harness.run(trace));
+    }
+
+    private static AbsoluteLayoutManager.LayoutProvider createGridLayoutProvider() {
+        GridLayoutProvider layoutProvider = new GridLayoutProvider(3, GridLayoutProvider.VERTICAL);
+        layoutProvider.setInterItemSpacing(8);
+        return layoutProvider;
+    }
+
+    private static AbsoluteLayoutManager.LayoutProvider createMasonryLayoutProvider() {
+        return new MasonryLayoutProvider(3) {
+            @Override
+            protected int getItemHeight(int position, int columnWidth) {
+                return 200 + (position * 7919) % 400;
+            }
+        };
+    }
+
+    private static AbsoluteLayoutManager.LayoutProvider createTableLayoutProvider() {
+        return new TableLayoutProvider(20) {
+            @Override
+            protected int getRowHeight(int row) {
+                return 120 + (row * 31) % 80;
+            }
+
+            @Override
+            protected int getColumnWidth(int column) {
+                return 240 + (column * 53) % 160;
+            }
+        };
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright (C) 2015 Yuya Tanaka
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ypresto.recyclerview.absolutelayoutmanager;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * Summary and per-frame values of frames recorded by {@link ScrollHarness}, and regression check of
+ * its totals against baseline.
+ * <p>
+ * Counts are deterministic, so any increase from baseline is a regression. Allocated bytes vary slightly
+ * between JVMs, so it is allowed to exceed baseline by {@link #ALLOCATION_TOLERANCE}.
+ * Totals missing in baseline are regressions too, so that the check cannot pass without recorded baseline.
+ */
+final class ScrollReport {
+    static final String[] METRICS = {"creates", "binds", "measures", "recycles", "scraps", "allocatedBytes"};
+    static final float ALLOCATION_TOLERANCE = 0.2f;
+
+    private final StringBuilder mText = new StringBuilder();
+    private final StringBuilder mFramesText = new StringBuilder();
+    private final Map<String, Long> mTotals = new TreeMap<>();
+
+    void add(String scenario, List<ScrollHarness.Frame> frames) {
+        for (int i = 0; i < frames.size(); i++) {
+            mFramesText.append(String.format(Locale.US, "%-20s%8d", scenario, i));
+            for (int metric = 0; metric < METRICS.length; metric++) {
+                mFramesText.append(String.format(Locale.US, "%16d", getValue(frames.get(i), metric)));
+            }
+            mFramesText.append(String.format(Locale.US, "%n"));
+        }
+        mText.append(String.format(Locale.US, "%s (%d frames)%n", scenario, frames.size()));
+        mText.append(String.format(Locale.US, "  %-16s%12s%12s%12s%12s%n", "metric", "total", "mean", "p95", "max"));
+        for (int metric = 0; metric < METRICS.length; metric++) {
+            long[] values = new long[frames.size()];
+            long total = 0;
+            for (int i = 0; i < values.length; i++) {
+                values[i] = getValue(frames.get(i), metric);
+                total += values[i];
+            }
+            Arrays.sort(values);
+            long p95 = values.length == 0 ? 0 : values[(int) Math.ceil(values.length * 0.95) - 1];
+            long max = values.length == 0 ? 0 : values[values.length - 1];
+            double mean = values.length == 0 ? 0 : (double) total / values.length;
+            mText.append(String.format(Locale.US, "  %-16s%12d%12.1f%12d%12d%n", METRICS[metric], total, mean, p95, max));
+            mTotals.put(scenario + "." + METRICS[metric], total);
+        }
+    }
+
+    /**
+     * Write summary followed by values of each frame.
+     */
+    void write(File file) throws IOException {
+        StringBuilder text = new StringBuilder(mText);
+        text.append(String.format(Locale.US, "%n%-20s%8s", "scenario", "frame"));
+        for (String metric : METRICS) {
+            text.append(String.format(Locale.US, "%16s", metric));
+        }
+        text.append(String.format(Locale.US, "%n")).append(mFramesText);
+        writeText(file, text.toString());
+    }
+
+    /**
+     * Compare totals with baseline file.
+     *
+     * @return Regressions and totals missing in baseline, empty if none.
+     */
+    List<String> checkBaseline(File baselineFile) throws IOException {
+        List<String> regressions = new ArrayList<>();
+        if (!baselineFile.isFile()) {
+            regressions.add("Baseline not found: " + baselineFile + ". Record it with -PrecordScrollBaseline.");
+            return regressions;
+        }
+        Properties baseline = new Properties();
+        InputStream in = new FileInputStream(baselineFile);
+        try {
+            baseline.load(in);
+        } finally {
+            in.close();
+        }
+        for (Map.Entry<String, Long> entry : mTotals.entrySet()) {
+            String key = entry.getKey();
+            long actual = entry.getValue();
+            String expectedValue = baseline.getProperty(key);
+            if (expectedValue == null) {
+                regressions.add(key + ": not in baseline. Record it with -PrecordScrollBaseline.");
+                continue;
+            }
+            long expected = Long.parseLong(expectedValue);
+            long limit = key.endsWith(".allocatedBytes") ? (long) (expected * (1 + ALLOCATION_TOLERANCE)) : expected;
+            if (actual > limit) {
+                regressions.add(String.format(Locale.US, "%s: %d > baseline %d", key, actual, expected));
+            }
+        }
+        return regressions;
+    }
+
+    /**
+     * Overwrite baseline file with current totals, sorted by key to keep diffs small.
+     */
+    void recordBaseline(File baselineFile) throws IOException {
+        StringBuilder text = new StringBuilder();
+        text.append("# Totals of ScrollPerformanceTest. Record by ./gradlew :lib:testDebugUnitTest -PrecordScrollBaseline\n");
+        for (Map.Entry<String, Long> entry : mTotals.entrySet()) {
+            text.append(entry.getKey()).append('=').append(entry.getValue()).append('\n');
+        }
+        writeText(baselineFile, text.toString());
+    }
+
+    @Override
+    public String toString() {
+        return mText.toString();
+    }
+
+    private static void writeText(File file, String text) throws IOException {
+        File parent = file.getParentFile();
+        if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+            throw new IOException("Cannot create directory: " + parent);
+        }
+        OutputStream out = new FileOutputStream(file);
+        try {
+            out.write(text.getBytes("UTF-8"));
+        } finally {
+            out.close();
+        }
+    }
+
+    private static long getValue(ScrollHarness.Frame frame, int metric) {
+        switch (metric) {
+            case 0:
+                return frame.mCreateCount;
+            case 1:
+                return frame.mBindCount;
+            case 2:
+                return frame.mMeasureCount;
+            case 3:
+                return frame.mRecycleCount;
+            case 4:
+                return frame.mScrapCount;
+            case 5:
+                return frame.mAllocatedBytes;
+            default:
+                throw new IllegalArgumentException("Unknown metric: " + metric);
+        }
+    }
+}
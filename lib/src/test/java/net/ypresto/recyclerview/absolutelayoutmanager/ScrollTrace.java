@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2015 Yuya Tanaka
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ypresto.recyclerview.absolutelayoutmanager;
+
+/**
+ * Scripted scroll deltas of each frame, deterministic so that runs are comparable.
+ */
+final class ScrollTrace {
+    private static final float FRAMES_PER_SECOND = 60f;
+
+    final String mName;
+    final int[] mDx;
+    final int[] mDy;
+
+    private ScrollTrace(String name, int[] dx, int[] dy) {
+        mName = name;
+        mDx = dx;
+        mDy = dy;
+    }
+
+    int getFrameCount() {
+        return mDx.length;
+    }
+
+    /**
+     * Fling which decelerates by friction until it stops, then flings back by same velocity.
+     *
+     * @param velocityX Initial velocity in pixels per second.
+     * @param velocityY Initial velocity in pixels per second.
+     * @param friction  Ratio of velocity lost per frame, in (0, 1).
+     */
+    static ScrollTrace fling(String name, float velocityX, float velocityY, float friction) {
+        int frameCount = 0;
+        for (float speed = Math.max(Math.abs(velocityX), Math.abs(velocityY)); speed / FRAMES_PER_SECOND >= 1f; speed *= 1f - friction) {
+            frameCount++;
+        }
+        int[] dx = new int[frameCount * 2];
+        int[] dy = new int[frameCount * 2];
+        float currentVelocityX = velocityX;
+        float currentVelocityY = velocityY;
+        for (int i = 0; i < frameCount; i++) {
+            dx[i] = Math.round(currentVelocityX / FRAMES_PER_SECOND);
+            dy[i] = Math.round(currentVelocityY / FRAMES_PER_SECOND);
+            dx[frameCount + i] = -dx[i];
+            dy[frameCount + i] = -dy[i];
+            currentVelocityX *= 1f - friction;
+            currentVelocityY *= 1f - friction;
+        }
+        return new ScrollTrace(name, dx, dy);
+    }
+
+    /**
+     * Slow pan following an ellipse, as dragging by finger around a point.
+     *
+     * @param radiusX     Horizontal radius of ellipse in pixels. 0 for vertical only pan.
+     * @param radiusY     Vertical radius of ellipse in pixels.
+     * @param frameCount  Frames per round.
+     * @param roundCount  Number of rounds.
+     */
+    static ScrollTrace pan(String name, int radiusX, int radiusY, int frameCount, int roundCount) {
+        int[] dx = new int[frameCount * roundCount];
+        int[] dy = new int[frameCount * roundCount];
+        int previousX = 0;
+        int previousY = 0;
+        for (int i = 0; i < dx.length; i++) {
+            double angle = 2 * Math.PI * (i + 1) / frameCount;
+            int x = (int) Math.round(radiusX * Math.sin(angle));
+            int y = (int) Math.round(radiusY * (1 - Math.cos(angle)));
+            dx[i] = x - previousX;
+            dy[i] = y - previousY;
+            previousX = x;
+            previousY = y;
+        }
+        return new ScrollTrace(name, dx, dy);
+    }
+}